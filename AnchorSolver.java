@@ -0,0 +1,349 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Backtracking solver that always fills the first empty cell (row-major) instead
+// of placing pieces in input order. Only placements anchored at that cell are
+// tried, and identical pieces are tracked as a count per type, so each packing
+// is reached exactly once rather than once per ordering of the pieces.
+//
+// When the pieces do not cover the whole board, the anchor cell may also be
+// left empty, as long as no more than (board area - piece area) cells are skipped.
+public class AnchorSolver {
+    private final PlacementTable table;
+    private final int[] remaining;
+    private final int[] areas;
+    private final int pieceCount;
+    private final long[] occupied;
+    private final int[] chosen;
+    private final RegionPruner pruner;
+    private int slack;
+
+    // Where this solver's search starts; non-zero for subtrees split off by expand()
+    private int startPlaced;
+    private int startFrom;
+
+    private SearchControl control;
+    private int nodes;
+    private boolean halted;
+
+    // Enumeration mode: keep going after each packing instead of stopping at the first
+    private boolean enumerating;
+    private SolutionListener listener;
+    private SymmetryFilter symmetry;
+    private long found;
+
+    // Dead-state cache (null when disabled): Zobrist hash of the unavailable cells
+    // and remaining pieces, keys per (type, remaining count), and packings reached
+    private DeadStateCache cache;
+    private long[][] countKeys;
+    private long hash;
+    private long packings;
+
+    private SearchStats stats;
+
+    public AnchorSolver(PlacementTable table, PieceCatalog catalog, int[] pieces, boolean pruneRegions) {
+        this.table = table;
+        this.remaining = new int[catalog.typeCount()];
+        this.areas = new int[catalog.typeCount()];
+        this.pieceCount = pieces.length;
+        this.occupied = table.emptyBoard();
+        this.chosen = new int[pieces.length];
+        this.pruner = pruneRegions ? new RegionPruner(table) : null;
+
+        for (int type = 1; type <= areas.length; type++) {
+            areas[type - 1] = catalog.area(type);
+        }
+
+        int area = 0;
+        for (int pieceType : pieces) {
+            remaining[pieceType - 1]++;
+            area += catalog.area(pieceType);
+        }
+        this.slack = table.freeCells - area;
+    }
+
+    // Independent copy of another solver's current state, with its own board
+    private AnchorSolver(AnchorSolver other) {
+        this.table = other.table;
+        this.remaining = other.remaining.clone();
+        this.areas = other.areas;
+        this.pieceCount = other.pieceCount;
+        this.occupied = other.occupied.clone();
+        this.chosen = other.chosen.clone();
+        this.pruner = other.pruner != null ? new RegionPruner(table) : null;
+        this.slack = other.slack;
+        this.startPlaced = other.startPlaced;
+        this.startFrom = other.startFrom;
+        this.control = other.control;
+        this.cache = other.cache;
+        this.countKeys = other.countKeys;
+        this.hash = other.hash;
+        this.stats = other.stats != null ? new SearchStats(other.stats.getEngine(), pieceCount) : null;
+    }
+
+    // Stop searching once the control says so
+    public void setControl(SearchControl control) {
+        this.control = control;
+    }
+
+    // Collect search statistics into stats (null to disable)
+    public void setStats(SearchStats stats) {
+        this.stats = stats;
+    }
+
+    SearchStats getStats() {
+        return stats;
+    }
+
+    // Skip states already proven dead and remember newly proven ones
+    public void setCache(DeadStateCache cache) {
+        this.cache = cache;
+        if (cache != null && countKeys == null) {
+            hash ^= table.identity;
+            countKeys = new long[remaining.length][];
+            for (int type = 0; type < remaining.length; type++) {
+                countKeys[type] = DeadStateCache.keys(remaining[type] + 1, 0x5EED + type + 1);
+                hash ^= countKeys[type][remaining[type]];
+            }
+        }
+    }
+
+    // Treat placement p as already on the board, e.g. one kept from an earlier
+    // packing: its cells are taken and no longer count as spare area. The
+    // returned boards leave its cells empty.
+    void fix(int p) {
+        table.toggle(occupied, p);
+        slack -= table.cells[p].length;
+        hash ^= table.zobrist[p];
+    }
+
+    // Returns the solved board, or null if the pieces cannot be packed
+    public int[][] solve() {
+        if (slack < 0) {
+            return null;
+        }
+        boolean solved = search(startPlaced, startFrom) && !halted;
+        flushNodes();
+        return solved ? table.toBoard(chosen, pieceCount) : null;
+    }
+
+    // Placements of the packing solve() found, one per piece
+    int[] placements() {
+        return chosen.clone();
+    }
+
+    // Visit every packing reachable from this solver's start node and return how
+    // many there were. The listener (null to only count, without building boards)
+    // returns false to stop early; a symmetry filter skips packings that are not
+    // the canonical member of their symmetry class.
+    public long enumerate(SolutionListener listener, SymmetryFilter symmetry) {
+        this.enumerating = true;
+        this.listener = listener;
+        this.symmetry = symmetry;
+        this.found = 0;
+        if (slack >= 0) {
+            search(startPlaced, startFrom);
+        }
+        flushNodes();
+        return found;
+    }
+
+    // True when every piece has been placed
+    boolean isComplete() {
+        return startPlaced == pieceCount;
+    }
+
+    // The children of this solver's starting node as independent solvers: one per
+    // placement that fits at the anchor cell, plus one leaving the cell empty
+    List<AnchorSolver> expand() {
+        List<AnchorSolver> children = new ArrayList<>();
+        int cell = slack < 0 ? -1 : table.firstEmpty(occupied, startFrom);
+        if (cell < 0) {
+            return children;
+        }
+
+        int[][] anchored = table.byAnchor[cell];
+        for (int type = 0; type < remaining.length; type++) {
+            if (remaining[type] == 0) {
+                continue;
+            }
+            for (int p : anchored[type]) {
+                if (table.fits(occupied, p)) {
+                    AnchorSolver child = new AnchorSolver(this);
+                    child.toggle(p, type, -1);
+                    child.chosen[startPlaced] = p;
+                    child.startPlaced = startPlaced + 1;
+                    child.startFrom = cell + 1;
+                    if (child.viable(child.startPlaced)) {
+                        children.add(child);
+                    }
+                }
+            }
+        }
+
+        if (slack > 0) {
+            AnchorSolver child = new AnchorSolver(this);
+            child.skip(cell);
+            child.startFrom = cell + 1;
+            if (child.viable(child.startPlaced)) {
+                children.add(child);
+            }
+        }
+
+        return children;
+    }
+
+    // Returns true when the search should stop: a packing was found (or the
+    // listener asked to stop) or the control halted it
+    private boolean search(int placed, int from) {
+        if (placed == pieceCount) {
+            return foundPacking();
+        }
+        if (stopped(placed)) {
+            return true;
+        }
+        if (stats != null) {
+            stats.nodes++;
+        }
+        if (cache == null) {
+            return branch(placed, from);
+        }
+
+        if (cache.isDead(hash)) {
+            if (stats != null) {
+                stats.prune(SearchStats.Prune.DEAD_STATE);
+            }
+            return false;
+        }
+        long before = packings;
+        boolean stop = branch(placed, from);
+        if (!stop && packings == before) {
+            cache.markDead(hash);
+        }
+        return stop;
+    }
+
+    // Try every placement anchored at the first empty cell, then leaving it empty
+    private boolean branch(int placed, int from) {
+        int cell = table.firstEmpty(occupied, from);
+        if (cell < 0) {
+            return false;
+        }
+
+        int[][] anchored = table.byAnchor[cell];
+        for (int type = 0; type < remaining.length; type++) {
+            if (remaining[type] == 0) {
+                continue;
+            }
+            for (int p : anchored[type]) {
+                if (stats != null) {
+                    stats.tried++;
+                }
+                if (table.fits(occupied, p)) {
+                    toggle(p, type, -1);
+                    chosen[placed] = p;
+
+                    if (viable(placed + 1) && search(placed + 1, cell + 1)) {
+                        return true;
+                    }
+
+                    toggle(p, type, +1);
+                    if (stats != null) {
+                        stats.backtracks[placed]++;
+                    }
+                } else if (stats != null) {
+                    stats.rejected++;
+                }
+            }
+        }
+
+        // Leave this cell empty if the spare area allows it
+        if (slack > 0) {
+            skip(cell);
+            boolean stop = viable(placed) && search(placed, cell + 1);
+            unskip(cell);
+            return stop;
+        }
+
+        return false;
+    }
+
+    // Place (delta -1) or remove (delta +1) placement p of the given type index
+    private void toggle(int p, int type, int delta) {
+        table.toggle(occupied, p);
+        if (cache != null) {
+            hash ^= table.zobrist[p] ^ countKeys[type][remaining[type]] ^ countKeys[type][remaining[type] + delta];
+        }
+        remaining[type] += delta;
+    }
+
+    private void skip(int cell) {
+        occupied[cell >>> 6] |= 1L << cell;
+        slack--;
+        hash ^= table.cellKeys[cell];
+    }
+
+    private void unskip(int cell) {
+        occupied[cell >>> 6] &= ~(1L << cell);
+        slack++;
+        hash ^= table.cellKeys[cell];
+    }
+
+    private boolean foundPacking() {
+        packings++;
+        if (!enumerating) {
+            return true;
+        }
+        if (symmetry != null && !symmetry.isCanonical(chosen, pieceCount)) {
+            return false;
+        }
+        found++;
+        if (listener != null && !listener.onSolution(table.toBoard(chosen, pieceCount))) {
+            halted = true;
+        }
+        return halted;
+    }
+
+    // Poll the search control every CHECK_INTERVAL nodes, sampling the first
+    // placed placements when a progress snapshot is due
+    private boolean stopped(int placed) {
+        if (control != null && ++nodes == SearchControl.CHECK_INTERVAL) {
+            nodes = 0;
+            halted = control.checkpoint(SearchControl.CHECK_INTERVAL);
+            if (control.snapshotDue()) {
+                control.snapshot(table.toBoard(chosen, placed));
+            }
+        }
+        return halted;
+    }
+
+    // Dead-region check against the pieces that are still unplaced
+    private boolean viable(int placed) {
+        if (pruner == null || placed == pieceCount) {
+            return true;
+        }
+        int minArea = Integer.MAX_VALUE;
+        int areaGcd = 0;
+        for (int type = 0; type < remaining.length; type++) {
+            if (remaining[type] > 0) {
+                minArea = Math.min(minArea, areas[type]);
+                areaGcd = RegionPruner.gcd(areas[type], areaGcd);
+            }
+        }
+        if (pruner.viable(occupied, slack, minArea, areaGcd)) {
+            return true;
+        }
+        if (stats != null) {
+            stats.prune(SearchStats.Prune.REGION);
+        }
+        return false;
+    }
+
+    // Report nodes not yet counted by a checkpoint
+    private void flushNodes() {
+        if (control != null) {
+            control.addNodes(nodes);
+            nodes = 0;
+        }
+    }
+}
@@ -0,0 +1,504 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Headless batch mode: reads puzzles one per line from a file or stdin, solves
+// them on a fixed thread pool and writes one JSON result line per puzzle.
+//
+// Input lines are either "size pieces" (size is N or WxH, pieces separated by
+// commas or spaces, e.g. "6 6,6,5,5,9,9,10,11,2,1" or "8x5 5,5,6,9") or JSON
+// objects such as {"id":"a","size":6,"pieces":[6,6,5,5],"engine":"DLX"}. JSON
+// lines may give "width" and "height" instead of "size", and "blocked" as a list
+// of row-major cell indices. Blank lines and lines starting with # are skipped.
+public class BatchSolver {
+
+    // Results are written in input order, or as soon as each puzzle finishes
+    public enum Order {
+        INPUT, COMPLETION
+    }
+
+    // Answers a --cache store keeps in memory
+    private static final int CACHE_ENTRIES = 10_000;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Order order = Order.INPUT;
+    private PackingPuzzle.Engine engine = PackingPuzzle.Engine.BITBOARD;
+    private PieceOrder pieceOrder = PieceOrder.INPUT;
+    private PlacementOrder placementOrder = PlacementOrder.BOARD;
+    private long timeoutMillis;
+    private boolean boards = true;
+    private boolean stats;
+    private SolutionStore store;
+    private int failures;
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    // Parse the command line and run the batch; returns the process exit status
+    public static int run(String[] args) {
+        BatchSolver batch = new BatchSolver();
+        String input = "-";
+        String output = "-";
+        String cache = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--batch":
+                        break;
+                    case "--input":
+                        input = value(args, ++i);
+                        break;
+                    case "--output":
+                        output = value(args, ++i);
+                        break;
+                    case "--threads":
+                        batch.threads = Integer.parseInt(value(args, ++i));
+                        if (batch.threads < 1) {
+                            throw new IllegalArgumentException("--threads must be at least 1");
+                        }
+                        break;
+                    case "--order":
+                        batch.order = Order.valueOf(value(args, ++i).toUpperCase(Locale.ROOT));
+                        break;
+                    case "--engine":
+                        batch.engine = PackingPuzzle.Engine.valueOf(value(args, ++i).toUpperCase(Locale.ROOT));
+                        break;
+                    case "--piece-order":
+                        batch.pieceOrder = PieceOrder.Standard.valueOf(value(args, ++i).toUpperCase(Locale.ROOT));
+                        break;
+                    case "--placement-order":
+                        batch.placementOrder = PlacementOrder.Standard
+                                .valueOf(value(args, ++i).toUpperCase(Locale.ROOT));
+                        break;
+                    case "--timeout":
+                        batch.timeoutMillis = Long.parseLong(value(args, ++i));
+                        break;
+                    case "--no-boards":
+                        batch.boards = false;
+                        break;
+                    case "--stats":
+                        batch.stats = true;
+                        break;
+                    case "--cache":
+                        cache = value(args, ++i);
+                        break;
+                    case "--help":
+                        usage();
+                        return 0;
+                    default:
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option: " + args[i]);
+                        }
+                        input = args[i];
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            usage();
+            return 1;
+        }
+
+        try (InputStream in = input.equals("-") ? System.in : new FileInputStream(input);
+                OutputStream out = output.equals("-") ? System.out : new FileOutputStream(output);
+                SolutionStore store = cache == null ? null : new SolutionStore(new File(cache), CACHE_ENTRIES)) {
+            batch.store = store;
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            batch.solveAll(reader, writer);
+            writer.flush();
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Batch failed: " + e.getMessage());
+            return 1;
+        }
+        return batch.failures > 0 ? 2 : 0;
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[i - 1]);
+        }
+        return args[i];
+    }
+
+    private static void usage() {
+        System.err.println("Usage: java PackingPuzzle [--library FILE] --batch [options] [file]");
+        System.err.println("  --input FILE             puzzles to solve (default: stdin)");
+        System.err.println("  --output FILE            where to write results (default: stdout)");
+        System.err.println("  --threads N              solver threads (default: available processors)");
+        System.err.println("  --order ORDER            input or completion (default: input)");
+        System.err.println("  --engine ENGINE          BITBOARD (default), BACKTRACK, ANCHOR, DLX or PORTFOLIO");
+        System.err.println("  --piece-order ORDER      INPUT, LARGEST_FIRST or MOST_CONSTRAINED (default: INPUT)");
+        System.err.println("  --placement-order ORDER  BOARD or CONTACT (default: BOARD)");
+        System.err.println("  --timeout MS             per-puzzle time limit (default: none)");
+        System.err.println("  --no-boards              omit solved boards from the output");
+        System.err.println("  --stats                  include search statistics");
+        System.err.println("  --cache FILE             reuse and record answers in a persistent SolutionStore");
+    }
+
+    // Stream puzzles from reader to the pool, keeping a bounded number in flight
+    // so arbitrarily long inputs run in constant memory
+    void solveAll(BufferedReader reader, Writer writer) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CompletionService<String> completed = new ExecutorCompletionService<>(pool);
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>();
+        int window = threads * 4;
+        int inFlight = 0;
+
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+
+                int number = lineNumber;
+                Callable<String> task = () -> solveLine(number, trimmed);
+                if (order == Order.INPUT) {
+                    // Submitted straight to the pool: the completion queue would keep every result
+                    pending.add(pool.submit(task));
+                    if (pending.size() >= window) {
+                        write(writer, pending.poll());
+                    }
+                } else {
+                    completed.submit(task);
+                    if (++inFlight >= window) {
+                        write(writer, completed.take());
+                        inFlight--;
+                    }
+                }
+            }
+
+            if (order == Order.INPUT) {
+                while (!pending.isEmpty()) {
+                    write(writer, pending.poll());
+                }
+            } else {
+                for (; inFlight > 0; inFlight--) {
+                    write(writer, completed.take());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void write(Writer writer, Future<String> result) throws IOException, InterruptedException {
+        try {
+            writer.write(result.get());
+        } catch (ExecutionException e) {
+            // solveLine reports its own errors; anything else is a bug worth surfacing
+            throw new IllegalStateException(e.getCause());
+        }
+        writer.write('\n');
+        if (order == Order.COMPLETION) {
+            writer.flush();
+        }
+    }
+
+    // Solve one input line and format its result line
+    private String solveLine(int lineNumber, String line) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"line\":").append(lineNumber);
+        try {
+            Puzzle puzzle = Puzzle.parse(line, engine);
+            if (puzzle.id != null) {
+                sb.append(",\"id\":");
+                appendString(sb, puzzle.id);
+            }
+            BoardShape board = puzzle.board();
+            sb.append(",\"width\":").append(board.getWidth());
+            sb.append(",\"height\":").append(board.getHeight());
+
+            SearchControl control = new SearchControl();
+            if (timeoutMillis > 0) {
+                control.timeout(timeoutMillis);
+            }
+            SolverOptions options = new SolverOptions().engine(puzzle.engine).pieceOrder(pieceOrder)
+                    .placementOrder(placementOrder).collectStats(stats).solutionStore(store);
+            long start = System.nanoTime();
+            SolveResult result = PackingPuzzle.solve(puzzle.pieces, board, options, control);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            sb.append(",\"status\":\"").append(result.getStatus()).append('"');
+            if (result.getRejection() != null) {
+                sb.append(",\"rejection\":\"").append(result.getRejection()).append('"');
+            }
+            if (result.isCached()) {
+                sb.append(",\"cached\":true");
+            }
+            sb.append(",\"millis\":").append(millis);
+            if (boards && result.isSolved()) {
+                sb.append(",\"board\":");
+                appendBoard(sb, result.getBoard());
+            }
+            if (result.getStats() != null) {
+                sb.append(",\"stats\":").append(result.getStats().toJson());
+            }
+        } catch (Exception e) {
+            synchronized (this) {
+                failures++;
+            }
+            sb.append(",\"status\":\"ERROR\",\"error\":");
+            appendString(sb, String.valueOf(e.getMessage()));
+        }
+        return sb.append('}').toString();
+    }
+
+    private static void appendBoard(StringBuilder sb, int[][] board) {
+        sb.append('[');
+        for (int row = 0; row < board.length; row++) {
+            if (row > 0) {
+                sb.append(',');
+            }
+            sb.append('[');
+            for (int col = 0; col < board[row].length; col++) {
+                if (col > 0) {
+                    sb.append(',');
+                }
+                sb.append(board[row][col]);
+            }
+            sb.append(']');
+        }
+        sb.append(']');
+    }
+
+    private static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    // One puzzle read from a plain or JSON input line
+    static class Puzzle {
+        String id;
+        int width;
+        int height;
+        int[] blocked;
+        int[] pieces;
+        PackingPuzzle.Engine engine;
+
+        static Puzzle parse(String line, PackingPuzzle.Engine defaultEngine) {
+            Puzzle puzzle = new Puzzle();
+            puzzle.engine = defaultEngine;
+            if (line.startsWith("{")) {
+                new JsonLine(line, puzzle).parse();
+            } else {
+                String[] fields = line.split("[\\s,]+");
+                String[] size = fields[0].split("[xX]", 2);
+                puzzle.width = Integer.parseInt(size[0]);
+                puzzle.height = size.length > 1 ? Integer.parseInt(size[1]) : puzzle.width;
+                puzzle.pieces = new int[fields.length - 1];
+                for (int i = 1; i < fields.length; i++) {
+                    puzzle.pieces[i - 1] = Integer.parseInt(fields[i]);
+                }
+            }
+
+            if (puzzle.width < 1 || puzzle.height < 1) {
+                throw new IllegalArgumentException("Board size must be a positive number");
+            }
+            if (puzzle.pieces == null) {
+                throw new IllegalArgumentException("no pieces!");
+            }
+            return puzzle;
+        }
+
+        BoardShape board() {
+            if (blocked == null) {
+                return new BoardShape(width, height);
+            }
+            boolean[][] mask = new boolean[height][width];
+            for (int cell : blocked) {
+                if (cell < 0 || cell >= width * height) {
+                    throw new IllegalArgumentException("Blocked cell outside the board: " + cell);
+                }
+                mask[cell / width][cell % width] = true;
+            }
+            return new BoardShape(width, height, mask);
+        }
+    }
+
+    // Just enough of a JSON reader for one flat puzzle object: string and number
+    // fields plus the pieces array; unknown fields are skipped
+    private static class JsonLine {
+        private final String text;
+        private final Puzzle puzzle;
+        private int pos;
+
+        JsonLine(String text, Puzzle puzzle) {
+            this.text = text;
+            this.puzzle = puzzle;
+        }
+
+        void parse() {
+            expect('{');
+            if (peek() != '}') {
+                do {
+                    String key = string();
+                    expect(':');
+                    switch (key) {
+                        case "id":
+                            puzzle.id = peek() == '"' ? string() : Long.toString(number());
+                            break;
+                        case "size":
+                            puzzle.width = (int) number();
+                            puzzle.height = puzzle.width;
+                            break;
+                        case "width":
+                            puzzle.width = (int) number();
+                            break;
+                        case "height":
+                            puzzle.height = (int) number();
+                            break;
+                        case "blocked":
+                            puzzle.blocked = numbers();
+                            break;
+                        case "pieces":
+                            puzzle.pieces = numbers();
+                            break;
+                        case "engine":
+                            puzzle.engine = PackingPuzzle.Engine.valueOf(string().toUpperCase(Locale.ROOT));
+                            break;
+                        default:
+                            skipValue();
+                    }
+                } while (accept(','));
+            }
+            expect('}');
+        }
+
+        private int[] numbers() {
+            List<Integer> values = new ArrayList<>();
+            expect('[');
+            if (peek() != ']') {
+                do {
+                    values.add((int) number());
+                } while (accept(','));
+            }
+            expect(']');
+            int[] result = new int[values.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = values.get(i);
+            }
+            return result;
+        }
+
+        private long number() {
+            peek();
+            int start = pos;
+            if (pos < text.length() && text.charAt(pos) == '-') {
+                pos++;
+            }
+            while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error("number");
+            }
+            return Long.parseLong(text.substring(start, pos));
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (pos < text.length() && text.charAt(pos) != '"') {
+                char c = text.charAt(pos++);
+                if (c == '\\' && pos < text.length()) {
+                    c = text.charAt(pos++);
+                    if (c == 'u' && pos + 4 <= text.length()) {
+                        c = (char) Integer.parseInt(text.substring(pos, pos + 4), 16);
+                        pos += 4;
+                    } else if (c == 'n') {
+                        c = '\n';
+                    } else if (c == 't') {
+                        c = '\t';
+                    }
+                }
+                sb.append(c);
+            }
+            expect('"');
+            return sb.toString();
+        }
+
+        private void skipValue() {
+            char c = peek();
+            if (c == '"') {
+                string();
+            } else if (c == '[' || c == '{') {
+                char close = c == '[' ? ']' : '}';
+                pos++;
+                if (peek() != close) {
+                    do {
+                        if (close == '}') {
+                            string();
+                            expect(':');
+                        }
+                        skipValue();
+                    } while (accept(','));
+                }
+                expect(close);
+            } else {
+                while (pos < text.length() && ",}] \t".indexOf(text.charAt(pos)) < 0) {
+                    pos++;
+                }
+            }
+        }
+
+        private char peek() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+            return pos < text.length() ? text.charAt(pos) : '\0';
+        }
+
+        private boolean accept(char c) {
+            if (peek() == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!accept(c)) {
+                throw error("'" + c + "'");
+            }
+        }
+
+        private IllegalArgumentException error(String expected) {
+            return new IllegalArgumentException("Invalid JSON: expected " + expected + " at column " + (pos + 1));
+        }
+    }
+}
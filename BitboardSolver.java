@@ -0,0 +1,243 @@
+import java.util.Arrays;
+
+// Backtracking solver over a bitboard. Pieces are placed in the given order like
+// PackingPuzzle.solve, but every placement is a precomputed mask so testing a
+// placement is an AND and placing/removing it is an XOR. The search itself
+// allocates nothing.
+public class BitboardSolver {
+    private final PlacementTable table;
+    private final int[] pieces;
+    private final long[] occupied;
+    private final int[] chosen;
+
+    // Dead-region pruning (null when disabled): spare board area, and the smallest
+    // area and area gcd of the pieces from each index onwards
+    private final RegionPruner pruner;
+    private final int slack;
+    private final int[] suffixMinArea;
+    private final int[] suffixGcd;
+
+    private SearchControl control;
+    private int nodes;
+    private boolean halted;
+
+    // Dead-state cache (null when disabled). The remaining pieces are fixed by the
+    // piece index, so a state hashes as its occupied cells' keys plus a key per
+    // index, drawn from the table and the pieces from that index onwards.
+    private DeadStateCache cache;
+    private long[] indexKeys;
+    private long hash;
+
+    private SearchStats stats;
+
+    // Placement scorer (null when placements are tried in board order): the
+    // fitting placements of each depth sorted by score, and shared sort buffers
+    private PlacementOrder.Scorer scorer;
+    private int[][] ordered;
+    private int[] candidates;
+    private int[] scores;
+    private int[] buckets;
+
+    public BitboardSolver(PlacementTable table, PieceCatalog catalog, int[] pieces, boolean pruneRegions) {
+        this.table = table;
+        this.pieces = pieces;
+        this.occupied = table.emptyBoard();
+        this.chosen = new int[pieces.length];
+        this.pruner = pruneRegions ? new RegionPruner(table) : null;
+
+        suffixMinArea = new int[pieces.length + 1];
+        suffixGcd = new int[pieces.length + 1];
+        suffixMinArea[pieces.length] = 1;
+        suffixGcd[pieces.length] = 1;
+        int area = 0;
+        for (int i = pieces.length - 1; i >= 0; i--) {
+            int pieceArea = catalog.area(pieces[i]);
+            area += pieceArea;
+            boolean last = i == pieces.length - 1;
+            suffixMinArea[i] = last ? pieceArea : Math.min(pieceArea, suffixMinArea[i + 1]);
+            suffixGcd[i] = last ? pieceArea : RegionPruner.gcd(pieceArea, suffixGcd[i + 1]);
+        }
+        this.slack = table.freeCells - area;
+    }
+
+    // Stop searching once the control says so
+    public void setControl(SearchControl control) {
+        this.control = control;
+    }
+
+    // Collect search statistics into stats (null to disable)
+    public void setStats(SearchStats stats) {
+        this.stats = stats;
+    }
+
+    // Skip states already proven dead and remember newly proven ones
+    public void setCache(DeadStateCache cache) {
+        this.cache = cache;
+        if (cache != null) {
+            indexKeys = new long[pieces.length + 1];
+            long h = table.identity;
+            for (int i = pieces.length; i >= 0; i--) {
+                if (i < pieces.length) {
+                    h = (h ^ pieces[i]) * 0x100000001b3L;
+                }
+                indexKeys[i] = DeadStateCache.keys(1, h)[0];
+            }
+        }
+    }
+
+    // Order in which each piece's placements are tried
+    public void setPlacementOrder(PlacementOrder order) {
+        scorer = order.scorer(table);
+        if (scorer == null) {
+            return;
+        }
+        int most = 0;
+        for (int pieceType : pieces) {
+            most = Math.max(most, table.byType[pieceType - 1].length);
+        }
+        ordered = new int[pieces.length][most];
+        candidates = new int[most];
+        scores = new int[most];
+        buckets = new int[scorer.maxScore() + 1];
+    }
+
+    // Returns the solved board, or null if the pieces cannot be packed
+    public int[][] solve() {
+        boolean solved = solve(0);
+        flushNodes();
+        return solved ? table.toBoard(chosen, pieces.length) : null;
+    }
+
+    private boolean solve(int pieceIndex) {
+        if (pieceIndex == pieces.length) {
+            return true;
+        }
+        if (stopped(pieceIndex)) {
+            return false;
+        }
+        if (stats != null) {
+            stats.nodes++;
+        }
+        if (cache == null) {
+            return branch(pieceIndex);
+        }
+
+        long key = hash ^ indexKeys[pieceIndex];
+        if (cache.isDead(key)) {
+            if (stats != null) {
+                stats.prune(SearchStats.Prune.DEAD_STATE);
+            }
+            return false;
+        }
+        boolean solved = branch(pieceIndex);
+        if (!solved && !halted) {
+            cache.markDead(key);
+        }
+        return solved;
+    }
+
+    // Try every placement of the piece at pieceIndex, in table order: orientation
+    // by orientation, each over all positions (BACKTRACK instead tries every
+    // rotation at one position before moving on)
+    private boolean branch(int pieceIndex) {
+        int[] placements = table.byType[pieces[pieceIndex] - 1];
+        int count = placements.length;
+        if (scorer != null) {
+            placements = ordered[pieceIndex];
+            count = sortByScore(pieces[pieceIndex], placements);
+        }
+
+        for (int i = 0; i < count; i++) {
+            int p = placements[i];
+            // Scored placements were already filtered by fits
+            if (scorer != null || fits(p)) {
+                table.toggle(occupied, p);
+                hash ^= table.zobrist[p];
+                chosen[pieceIndex] = p;
+
+                if (viable(pieceIndex + 1) && solve(pieceIndex + 1)) {
+                    return true;
+                }
+
+                hash ^= table.zobrist[p];
+                table.toggle(occupied, p);
+                if (stats != null) {
+                    stats.backtracks[pieceIndex]++;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private boolean fits(int p) {
+        if (stats != null) {
+            stats.tried++;
+        }
+        if (table.fits(occupied, p)) {
+            return true;
+        }
+        if (stats != null) {
+            stats.rejected++;
+        }
+        return false;
+    }
+
+    // Write the placements of pieceType that fit into out, highest score first (a
+    // counting sort, stable so ties keep board order); returns how many
+    private int sortByScore(int pieceType, int[] out) {
+        int count = 0;
+        Arrays.fill(buckets, 0);
+        for (int p : table.byType[pieceType - 1]) {
+            if (fits(p)) {
+                int score = scorer.score(occupied, p);
+                candidates[count] = p;
+                scores[count++] = score;
+                buckets[score]++;
+            }
+        }
+
+        int start = 0;
+        for (int score = buckets.length - 1; score >= 0; score--) {
+            int size = buckets[score];
+            buckets[score] = start;
+            start += size;
+        }
+        for (int i = 0; i < count; i++) {
+            out[buckets[scores[i]]++] = candidates[i];
+        }
+        return count;
+    }
+
+    // Dead-region check against the pieces from pieceIndex onwards
+    private boolean viable(int pieceIndex) {
+        if (pruner == null || pruner.viable(occupied, slack, suffixMinArea[pieceIndex], suffixGcd[pieceIndex])) {
+            return true;
+        }
+        if (stats != null) {
+            stats.prune(SearchStats.Prune.REGION);
+        }
+        return false;
+    }
+
+    // Poll the search control every CHECK_INTERVAL nodes, sampling the first
+    // pieceIndex placements when a progress snapshot is due
+    private boolean stopped(int pieceIndex) {
+        if (control != null && ++nodes == SearchControl.CHECK_INTERVAL) {
+            nodes = 0;
+            halted = control.checkpoint(SearchControl.CHECK_INTERVAL);
+            if (control.snapshotDue()) {
+                control.snapshot(table.toBoard(chosen, pieceIndex));
+            }
+        }
+        return halted;
+    }
+
+    // Report nodes not yet counted by a checkpoint
+    private void flushNodes() {
+        if (control != null) {
+            control.addNodes(nodes);
+            nodes = 0;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import java.util.Arrays;
+
+// The board to pack: a width x height rectangle, optionally with blocked cells
+// (fixtures, holes) that no piece may cover. Blocked cells are removed from the
+// placement table and pre-set in the solvers' occupancy masks, so they cost
+// nothing during the search. In solved boards they hold BLOCKED.
+public final class BoardShape {
+    // Board value of a blocked cell
+    public static final int BLOCKED = -1;
+
+    private final int width;
+    private final int height;
+    private final boolean[] blocked;
+    private final int blockedCount;
+
+    public BoardShape(int width, int height) {
+        this(width, height, null);
+    }
+
+    // blocked[row][col] marks cells no piece may cover (null for none)
+    public BoardShape(int width, int height, boolean[][] blocked) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Board size must be a positive number");
+        }
+        this.width = width;
+        this.height = height;
+        this.blocked = new boolean[width * height];
+
+        int count = 0;
+        if (blocked != null) {
+            if (blocked.length != height) {
+                throw new IllegalArgumentException("Blocked-cell mask must have " + height + " rows");
+            }
+            for (int row = 0; row < height; row++) {
+                if (blocked[row].length != width) {
+                    throw new IllegalArgumentException("Blocked-cell mask must have " + width + " columns");
+                }
+                for (int col = 0; col < width; col++) {
+                    if (blocked[row][col]) {
+                        this.blocked[row * width + col] = true;
+                        count++;
+                    }
+                }
+            }
+        }
+        this.blockedCount = count;
+    }
+
+    public static BoardShape square(int size) {
+        return new BoardShape(size, size);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public boolean isBlocked(int row, int col) {
+        return blocked[row * width + col];
+    }
+
+    boolean isBlocked(int cell) {
+        return blocked[cell];
+    }
+
+    public boolean hasBlockedCells() {
+        return blockedCount > 0;
+    }
+
+    // Cells pieces may cover
+    public int getFreeCells() {
+        return width * height - blockedCount;
+    }
+
+    // An empty board of this shape: zeros, with BLOCKED in the blocked cells
+    public int[][] newBoard() {
+        int[][] board = new int[height][width];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                if (blocked[row * width + col]) {
+                    board[row][col] = BLOCKED;
+                }
+            }
+        }
+        return board;
+    }
+
+    // Compact text form, e.g. "8x5" or "8x5/b3,17" (blocked cell indices, row-major)
+    public String key() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(width).append('x').append(height);
+        char separator = '/';
+        for (int cell = 0; cell < blocked.length; cell++) {
+            if (blocked[cell]) {
+                sb.append(separator);
+                if (separator == '/') {
+                    sb.append('b');
+                }
+                sb.append(cell);
+                separator = ',';
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof BoardShape)) {
+            return false;
+        }
+        BoardShape other = (BoardShape) o;
+        return width == other.width && height == other.height && Arrays.equals(blocked, other.blocked);
+    }
+
+    @Override
+    public int hashCode() {
+        return (width * 31 + height) * 31 + Arrays.hashCode(blocked);
+    }
+
+    @Override
+    public String toString() {
+        return key();
+    }
+}
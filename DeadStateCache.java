@@ -0,0 +1,109 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded cache of search states proven to lead to no packing. A state is the
+// set of unavailable cells plus the multiset of pieces still to place, hashed
+// Zobrist-style: every cell and every (piece type, remaining count) pair has a
+// random 64-bit key, and solvers XOR keys in and out as they place and remove
+// pieces, so the hash is maintained in O(1) per move. Every hash also includes a
+// key for the board and its placements, so one cache can be reused across
+// different puzzles.
+//
+// The table is direct-mapped: a new state simply overwrites whatever shared its
+// slot. Only the 64-bit hash is stored, so a false hit needs two distinct states
+// with identical hashes. The table may be shared by parallel workers.
+public class DeadStateCache {
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Capacity in states, rounded up to a power of two; each state takes 8 bytes
+    public DeadStateCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    // Random keys shared by every solver, so equal states hash equally across threads
+    static long[] keys(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = random.nextLong();
+        }
+        return keys;
+    }
+
+    boolean isDead(long hash) {
+        lookups.increment();
+        if (slots.get(index(hash)) == nonZero(hash)) {
+            hits.increment();
+            return true;
+        }
+        return false;
+    }
+
+    void markDead(long hash) {
+        int index = index(hash);
+        long old = slots.getAndSet(index, nonZero(hash));
+        stores.increment();
+        if (old != 0 && old != nonZero(hash)) {
+            evictions.increment();
+        }
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    public long getMemoryBytes() {
+        return 8L * slots.length();
+    }
+
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long total = lookups.sum();
+        return total == 0 ? 0 : (double) hits.sum() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d lookups, %.1f%% hits, %d stores, %d evictions, %d KB",
+                getLookups(), 100 * getHitRate(), getStores(), getEvictions(), getMemoryBytes() / 1024);
+    }
+
+    private int index(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    // 0 marks an empty slot
+    private static long nonZero(long hash) {
+        return hash == 0 ? 1 : hash;
+    }
+}
@@ -0,0 +1,235 @@
+// Dancing Links (Knuth's Algorithm X) solver for puzzles whose pieces exactly
+// cover the board. Each board cell is a primary column; each piece type is a
+// column with a multiplicity (how many pieces of that type are still unused),
+// which is covered only once the last piece of the type is placed. That keeps
+// identical pieces interchangeable instead of multiplying the search by the
+// number of ways to order them.
+//
+// The links live in flat int arrays, so the search allocates nothing.
+public class DlxSolver {
+    private static final int ROOT = 0;
+
+    private final PlacementTable table;
+    private final int cellCount;
+    private final int pieceCount;
+
+    // Column headers are nodes 1..cellCount (cells) and cellCount+1..cellCount+types (piece types)
+    private final int[] left, right, up, down, column, rowOf;
+    private final int[] columnSize;
+    private final int[] need;
+    private final int[] chosen;
+
+    private SearchControl control;
+    private int nodes;
+    private boolean halted;
+    private SearchStats stats;
+
+    public DlxSolver(PlacementTable table, PieceCatalog catalog, int[] pieces) {
+        this.table = table;
+        this.cellCount = table.rows * table.cols;
+        this.pieceCount = pieces.length;
+        this.chosen = new int[pieces.length];
+
+        int types = catalog.typeCount();
+        int headers = 1 + cellCount + types;
+        need = new int[types];
+        for (int pieceType : pieces) {
+            need[pieceType - 1]++;
+        }
+
+        int nodeCount = headers;
+        for (int type = 0; type < types; type++) {
+            if (need[type] > 0) {
+                for (int p : table.byType[type]) {
+                    nodeCount += table.cells[p].length + 1;
+                }
+            }
+        }
+
+        left = new int[nodeCount];
+        right = new int[nodeCount];
+        up = new int[nodeCount];
+        down = new int[nodeCount];
+        column = new int[nodeCount];
+        rowOf = new int[nodeCount];
+        columnSize = new int[headers];
+
+        // Free cell columns form the header ring; blocked cells and type columns
+        // link only to themselves
+        for (int h = 0; h < headers; h++) {
+            up[h] = h;
+            down[h] = h;
+            column[h] = h;
+            left[h] = h;
+            right[h] = h;
+        }
+        for (int h = 1; h <= cellCount; h++) {
+            if (!table.shape.isBlocked(h - 1)) {
+                left[h] = left[ROOT];
+                right[h] = ROOT;
+                right[left[ROOT]] = h;
+                left[ROOT] = h;
+            }
+        }
+
+        int next = headers;
+        for (int type = 0; type < types; type++) {
+            if (need[type] == 0) {
+                continue;
+            }
+            for (int p : table.byType[type]) {
+                int first = next;
+                int[] cells = table.cells[p];
+                for (int i = 0; i <= cells.length; i++) {
+                    int col = i < cells.length ? 1 + cells[i] : 1 + cellCount + type;
+                    int node = next++;
+                    column[node] = col;
+                    rowOf[node] = p;
+                    up[node] = up[col];
+                    down[node] = col;
+                    down[up[col]] = node;
+                    up[col] = node;
+                    columnSize[col]++;
+                    left[node] = i == 0 ? node : node - 1;
+                    right[node] = first;
+                    right[left[node]] = node;
+                    left[first] = node;
+                }
+            }
+        }
+    }
+
+    // Stop searching once the control says so
+    public void setControl(SearchControl control) {
+        this.control = control;
+    }
+
+    // Collect search statistics into stats (null to disable)
+    public void setStats(SearchStats stats) {
+        this.stats = stats;
+    }
+
+    // Returns the solved board, or null if the pieces cannot tile the board
+    public int[][] solve() {
+        boolean solved = search(0);
+        flushNodes();
+        return solved ? table.toBoard(chosen, pieceCount) : null;
+    }
+
+    private boolean search(int depth) {
+        if (right[ROOT] == ROOT) {
+            return true;
+        }
+        if (stopped(depth)) {
+            return false;
+        }
+        if (stats != null) {
+            stats.nodes++;
+        }
+
+        // Minimum remaining values: branch on the cell with the fewest candidates
+        int best = right[ROOT];
+        for (int c = right[best]; c != ROOT; c = right[c]) {
+            if (columnSize[c] < columnSize[best]) {
+                best = c;
+            }
+        }
+        if (columnSize[best] == 0) {
+            if (stats != null) {
+                stats.prune(SearchStats.Prune.EMPTY_COLUMN);
+            }
+            return false;
+        }
+
+        cover(best);
+        for (int r = down[best]; r != best; r = down[r]) {
+            chosen[depth] = rowOf[r];
+            if (stats != null) {
+                stats.tried++;
+            }
+            for (int j = right[r]; j != r; j = right[j]) {
+                select(column[j]);
+            }
+
+            if (search(depth + 1)) {
+                return true;
+            }
+
+            for (int j = left[r]; j != r; j = left[j]) {
+                deselect(column[j]);
+            }
+            if (stats != null) {
+                stats.backtracks[depth]++;
+            }
+        }
+        uncover(best);
+
+        return false;
+    }
+
+    // Cell columns are covered outright; a type column only when its last piece is used
+    private void select(int col) {
+        if (col > cellCount) {
+            if (--need[col - cellCount - 1] == 0) {
+                cover(col);
+            }
+        } else {
+            cover(col);
+        }
+    }
+
+    private void deselect(int col) {
+        if (col > cellCount) {
+            if (need[col - cellCount - 1]++ == 0) {
+                uncover(col);
+            }
+        } else {
+            uncover(col);
+        }
+    }
+
+    private void cover(int col) {
+        right[left[col]] = right[col];
+        left[right[col]] = left[col];
+        for (int i = down[col]; i != col; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                columnSize[column[j]]--;
+            }
+        }
+    }
+
+    private void uncover(int col) {
+        for (int i = up[col]; i != col; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                columnSize[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        right[left[col]] = col;
+        left[right[col]] = col;
+    }
+
+    // Poll the search control every CHECK_INTERVAL nodes, sampling the first
+    // depth placements when a progress snapshot is due
+    private boolean stopped(int depth) {
+        if (control != null && ++nodes == SearchControl.CHECK_INTERVAL) {
+            nodes = 0;
+            halted = control.checkpoint(SearchControl.CHECK_INTERVAL);
+            if (control.snapshotDue()) {
+                control.snapshot(table.toBoard(chosen, depth));
+            }
+        }
+        return halted;
+    }
+
+    // Report nodes not yet counted by a checkpoint
+    private void flushNodes() {
+        if (control != null) {
+            control.addNodes(nodes);
+            nodes = 0;
+        }
+    }
+}
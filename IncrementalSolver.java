@@ -0,0 +1,267 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Re-solves a puzzle after its pieces or board changed, starting from an earlier
+// packing instead of an empty board. The earlier board is split back into
+// placements; those that still fit and are still wanted stay where they are, and
+// the anchor search only has to place what is missing in the free space. If that
+// fails, the kept pieces nearest the free space are ripped up and placed again
+// with it, in rings of growing radius, each attempt on a small node budget. When
+// every ring fails the caller falls back to a full search.
+public class IncrementalSolver {
+    // Nodes one repair attempt may spend before the next, wider ring is tried
+    static final int ATTEMPT_NODES = 50_000;
+
+    // Nodes for splitting one region of equal piece types back into pieces
+    static final int SPLIT_NODES = 10_000;
+
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final PlacementTable table;
+    private final PieceCatalog catalog;
+    private final int[] pieces;
+    private final boolean pruneRegions;
+    private SearchStats stats;
+    private int splitNodes;
+
+    public IncrementalSolver(PlacementTable table, PieceCatalog catalog, int[] pieces, boolean pruneRegions) {
+        this.table = table;
+        this.catalog = catalog;
+        this.pieces = pieces;
+        this.pruneRegions = pruneRegions;
+    }
+
+    // Collect search statistics into stats (null to disable)
+    public void setStats(SearchStats stats) {
+        this.stats = stats;
+    }
+
+    // A packing of the pieces repaired from previous, or null if no repair was
+    // found (or the control stopped the search). before is a placement table for
+    // previous's rectangle, used to tell its pieces apart.
+    public int[][] repair(int[][] previous, PlacementTable before, SearchControl control) {
+        int[] missing = new int[catalog.typeCount()];
+        for (int pieceType : pieces) {
+            missing[pieceType - 1]++;
+        }
+        List<Integer> kept = new ArrayList<>();
+        for (int p : split(previous, before)) {
+            if (missing[table.typeOf[p] - 1] > 0) {
+                missing[table.typeOf[p] - 1]--;
+                kept.add(p);
+            }
+        }
+        if (kept.size() == pieces.length) {
+            return render(kept, null);
+        }
+
+        int[] ring = rings(kept);
+        int widest = 0;
+        for (int r : ring) {
+            if (r != UNREACHED) {
+                widest = Math.max(widest, r);
+            }
+        }
+
+        for (int radius = 0;; radius = Math.max(1, radius * 2)) {
+            List<Integer> fixed = new ArrayList<>();
+            List<Integer> pool = new ArrayList<>();
+            for (int type = 0; type < missing.length; type++) {
+                for (int i = 0; i < missing[type]; i++) {
+                    pool.add(type + 1);
+                }
+            }
+            for (int i = 0; i < kept.size(); i++) {
+                if (ring[i] <= radius) {
+                    pool.add(table.typeOf[kept.get(i)]);
+                } else {
+                    fixed.add(kept.get(i));
+                }
+            }
+            // Ripping up everything is a full search, which the caller runs with its own engine
+            if (fixed.isEmpty()) {
+                return null;
+            }
+
+            int[][] board = attempt(fixed, pool, control);
+            if (board != null || control.isStopped() || radius >= widest) {
+                return board;
+            }
+        }
+    }
+
+    // Place pool around the fixed placements within ATTEMPT_NODES nodes
+    private int[][] attempt(List<Integer> fixed, List<Integer> pool, SearchControl control) {
+        int[] poolPieces = new int[pool.size()];
+        for (int i = 0; i < poolPieces.length; i++) {
+            poolPieces[i] = pool.get(i);
+        }
+        AnchorSolver solver = new AnchorSolver(table, catalog, poolPieces, pruneRegions);
+        for (int p : fixed) {
+            solver.fix(p);
+        }
+
+        solver.setControl(control.child(ATTEMPT_NODES));
+        solver.setStats(stats);
+        int[][] board = solver.solve();
+        return board != null ? render(fixed, board) : null;
+    }
+
+    // Draw the placements onto board (a new board if null)
+    private int[][] render(List<Integer> placements, int[][] board) {
+        if (board == null) {
+            board = table.shape.newBoard();
+        }
+        for (int p : placements) {
+            for (int cell : table.cells[p]) {
+                board[cell / table.cols][cell % table.cols] = table.typeOf[p];
+            }
+        }
+        return board;
+    }
+
+    // For each kept placement, its distance in steps from the nearest cell no
+    // kept piece covers (UNREACHED if blocked cells wall it off from all of them)
+    private int[] rings(List<Integer> kept) {
+        int cellCount = table.rows * table.cols;
+        int[] distance = new int[cellCount];
+        Arrays.fill(distance, UNREACHED);
+        long[] occupied = table.emptyBoard();
+        for (int p : kept) {
+            table.toggle(occupied, p);
+        }
+
+        int[] queue = new int[cellCount];
+        int head = 0, tail = 0;
+        for (int cell = table.firstEmpty(occupied, 0); cell >= 0; cell = table.firstEmpty(occupied, cell + 1)) {
+            distance[cell] = 0;
+            queue[tail++] = cell;
+        }
+        while (head < tail) {
+            int cell = queue[head++];
+            int row = cell / table.cols, col = cell % table.cols;
+            int[] neighbors = { row > 0 ? cell - table.cols : -1, row < table.rows - 1 ? cell + table.cols : -1,
+                    col > 0 ? cell - 1 : -1, col < table.cols - 1 ? cell + 1 : -1 };
+            for (int next : neighbors) {
+                if (next >= 0 && distance[next] == UNREACHED && !table.shape.isBlocked(next)) {
+                    distance[next] = distance[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        int[] ring = new int[kept.size()];
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = UNREACHED;
+            for (int cell : table.cells[kept.get(i)]) {
+                ring[i] = Math.min(ring[i], distance[cell]);
+            }
+        }
+        return ring;
+    }
+
+    // Placements of this table covering the same cells as the pieces of previous,
+    // in row-major order. Each region of equal piece types is tiled with that
+    // piece again; regions that cannot be (or that stray off this board) are left out.
+    private List<Integer> split(int[][] previous, PlacementTable before) {
+        List<Integer> found = new ArrayList<>();
+        int cellCount = before.rows * before.cols;
+        boolean[] seen = new boolean[cellCount];
+        long[] outside = new long[before.words];
+        int[] region = new int[cellCount];
+        int[] tiles = new int[cellCount];
+
+        for (int start = 0; start < cellCount; start++) {
+            int type = previous[start / before.cols][start % before.cols];
+            if (seen[start] || type < 1 || type > catalog.typeCount()) {
+                continue;
+            }
+
+            int size = flood(previous, before, start, seen, region);
+            if (size % catalog.area(type) != 0) {
+                continue;
+            }
+            // Tile against a mask where everything but the region is taken
+            Arrays.fill(outside, -1L);
+            for (int i = 0; i < size; i++) {
+                outside[region[i] >>> 6] &= ~(1L << region[i]);
+            }
+            splitNodes = SPLIT_NODES;
+            int count = size / catalog.area(type);
+            if (tile(before, outside, type, tiles, 0, count)) {
+                for (int i = 0; i < count; i++) {
+                    int p = translate(before, tiles[i]);
+                    if (p >= 0) {
+                        found.add(p);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    // Collect the region of cells equal to previous at start into region; returns its size
+    private int flood(int[][] previous, PlacementTable before, int start, boolean[] seen, int[] region) {
+        int type = previous[start / before.cols][start % before.cols];
+        int size = 0;
+        seen[start] = true;
+        region[size++] = start;
+        for (int i = 0; i < size; i++) {
+            int cell = region[i];
+            int row = cell / before.cols, col = cell % before.cols;
+            int[] neighbors = { row > 0 ? cell - before.cols : -1, row < before.rows - 1 ? cell + before.cols : -1,
+                    col > 0 ? cell - 1 : -1, col < before.cols - 1 ? cell + 1 : -1 };
+            for (int next : neighbors) {
+                if (next >= 0 && !seen[next] && previous[next / before.cols][next % before.cols] == type) {
+                    seen[next] = true;
+                    region[size++] = next;
+                }
+            }
+        }
+        return size;
+    }
+
+    // Cover the free cells of occupied exactly with count placements of type,
+    // giving up after SPLIT_NODES nodes
+    private boolean tile(PlacementTable before, long[] occupied, int type, int[] tiles, int placed, int count) {
+        if (placed == count) {
+            return true;
+        }
+        if (--splitNodes < 0) {
+            return false;
+        }
+        int cell = before.firstEmpty(occupied, 0);
+        for (int p : before.byAnchor[cell][type - 1]) {
+            if (before.fits(occupied, p)) {
+                before.toggle(occupied, p);
+                tiles[placed] = p;
+                if (tile(before, occupied, type, tiles, placed + 1, count)) {
+                    return true;
+                }
+                before.toggle(occupied, p);
+            }
+        }
+        return false;
+    }
+
+    // This table's placement covering the cells of before's placement q, or -1
+    // if it leaves this board or covers a blocked cell
+    private int translate(PlacementTable before, int q) {
+        int[] cells = before.cells[q];
+        int[] moved = new int[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            int row = cells[i] / before.cols, col = cells[i] % before.cols;
+            if (row >= table.rows || col >= table.cols) {
+                return -1;
+            }
+            moved[i] = row * table.cols + col;
+        }
+        for (int p : table.byAnchor[moved[0]][before.typeOf[q] - 1]) {
+            if (Arrays.equals(table.cells[p], moved)) {
+                return p;
+            }
+        }
+        return -1;
+    }
+}
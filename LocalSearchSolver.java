@@ -0,0 +1,158 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+// Large-neighbourhood local search for big boards that are easy to pack but too
+// big to search exhaustively. A greedy pass puts each piece, biggest first, where
+// it touches the most (see PlacementTable.Contacts). Each move then takes one
+// piece that did not fit, rips up the pieces in a random square around a free
+// cell, and asks the anchor search to place them all together on a small node
+// budget. A move that succeeds places one more piece; one that fails changes
+// nothing and widens the squares of later moves. It never proves that there is
+// no packing. Moves follow a seeded Random, so the same seed and node budget
+// always give the same packing.
+public class LocalSearchSolver {
+    // Nodes one move may spend
+    static final int MOVE_NODES = 2_000;
+
+    private final PlacementTable table;
+    private final PieceCatalog catalog;
+    private final int[] pieces;
+    private final boolean pruneRegions;
+    private final Random random;
+    private SearchStats stats;
+
+    public LocalSearchSolver(PlacementTable table, PieceCatalog catalog, int[] pieces, boolean pruneRegions,
+            long seed) {
+        this.table = table;
+        this.catalog = catalog;
+        this.pieces = pieces;
+        this.pruneRegions = pruneRegions;
+        this.random = new Random(seed);
+    }
+
+    // Collect search statistics into stats (null to disable)
+    public void setStats(SearchStats stats) {
+        this.stats = stats;
+    }
+
+    // Returns a packing, or null once the control stops the search
+    public int[][] solve(SearchControl control) {
+        List<Integer> placed = new ArrayList<>();
+        List<Integer> unplaced = new ArrayList<>();
+        greedy(placed, unplaced);
+
+        int reach = 2;
+        int widest = Math.max(table.rows, table.cols);
+        while (!unplaced.isEmpty()) {
+            // Small moves may never reach a checkpoint, so check the budget and deadline here
+            if (control.checkpoint(0)) {
+                return null;
+            }
+            int piece = unplaced.get(random.nextInt(unplaced.size()));
+            int center = randomFreeCell(placed);
+            int radius = 1 + random.nextInt(reach);
+
+            List<Integer> fixed = new ArrayList<>();
+            List<Integer> pool = new ArrayList<>();
+            pool.add(piece);
+            for (int p : placed) {
+                if (near(p, center, radius)) {
+                    pool.add(table.typeOf[p]);
+                } else {
+                    fixed.add(p);
+                }
+            }
+
+            int[] poolPieces = new int[pool.size()];
+            for (int i = 0; i < poolPieces.length; i++) {
+                poolPieces[i] = pool.get(i);
+            }
+            AnchorSolver solver = new AnchorSolver(table, catalog, poolPieces, pruneRegions);
+            for (int p : fixed) {
+                solver.fix(p);
+            }
+            solver.setControl(control.child(MOVE_NODES));
+            solver.setStats(stats);
+
+            if (solver.solve() != null) {
+                placed = fixed;
+                for (int p : solver.placements()) {
+                    placed.add(p);
+                }
+                unplaced.remove(Integer.valueOf(piece));
+                reach = 2;
+            } else {
+                reach = Math.min(widest, reach + 1);
+            }
+        }
+
+        return table.toBoard(toArray(placed), placed.size());
+    }
+
+    // Place the pieces biggest first (in random order among equals), each where
+    // it has the highest contact score; pieces that fit nowhere go to unplaced
+    private void greedy(List<Integer> placed, List<Integer> unplaced) {
+        List<Integer> order = new ArrayList<>();
+        for (int pieceType : pieces) {
+            order.add(pieceType);
+        }
+        Collections.shuffle(order, random);
+        order.sort((a, b) -> Integer.compare(catalog.area(b), catalog.area(a)));
+
+        PlacementTable.Contacts contacts = table.contacts();
+        long[] occupied = table.emptyBoard();
+        for (int pieceType : order) {
+            int best = -1, bestScore = -1;
+            for (int p : table.byType[pieceType - 1]) {
+                if (table.fits(occupied, p)) {
+                    int score = contacts.score(occupied, p);
+                    if (score > bestScore) {
+                        best = p;
+                        bestScore = score;
+                    }
+                }
+            }
+            if (best >= 0) {
+                table.toggle(occupied, best);
+                placed.add(best);
+            } else {
+                unplaced.add(pieceType);
+            }
+        }
+    }
+
+    // A free cell picked uniformly; the area pre-check guarantees one while pieces are unplaced
+    private int randomFreeCell(List<Integer> placed) {
+        long[] occupied = table.emptyBoard();
+        for (int p : placed) {
+            table.toggle(occupied, p);
+        }
+        List<Integer> free = new ArrayList<>();
+        for (int cell = table.firstEmpty(occupied, 0); cell >= 0; cell = table.firstEmpty(occupied, cell + 1)) {
+            free.add(cell);
+        }
+        return free.get(random.nextInt(free.size()));
+    }
+
+    // Whether placement p has a cell within radius rows and columns of center
+    private boolean near(int p, int center, int radius) {
+        int centerRow = center / table.cols, centerCol = center % table.cols;
+        for (int cell : table.cells[p]) {
+            int row = cell / table.cols, col = cell % table.cols;
+            if (Math.abs(row - centerRow) <= radius && Math.abs(col - centerCol) <= radius) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,56 @@
+// Outcome of PackingPuzzle.optimize: the most valuable packing found and
+// whether the search finished, which proves no packing is worth more
+public class OptimizationResult {
+    private final int[][] board;
+    private final long value;
+    private final int piecesPlaced;
+    private final long bound;
+    private final SearchControl.Stop stop;
+    private SearchStats stats;
+
+    OptimizationResult(int[][] board, long value, int piecesPlaced, long bound, SearchControl.Stop stop) {
+        this.board = board;
+        this.value = value;
+        this.piecesPlaced = piecesPlaced;
+        this.bound = bound;
+        this.stop = stop;
+    }
+
+    // The best packing, in the same format as packingPuzzle (0 = empty cell)
+    public int[][] getBoard() {
+        return board;
+    }
+
+    // Its value under the chosen objective
+    public long getValue() {
+        return value;
+    }
+
+    public int getPiecesPlaced() {
+        return piecesPlaced;
+    }
+
+    // Upper bound on any packing's value, from the pieces and free cells alone
+    public long getBound() {
+        return bound;
+    }
+
+    // True if the search finished, so no packing is worth more than this one
+    public boolean isOptimal() {
+        return stop == null;
+    }
+
+    // Why the search stopped early, or null if it finished
+    public SearchControl.Stop getStop() {
+        return stop;
+    }
+
+    // Statistics of the search, or null unless SolverOptions.collectStats was on
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    void setStats(SearchStats stats) {
+        this.stats = stats;
+    }
+}
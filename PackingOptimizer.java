@@ -0,0 +1,274 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Branch-and-bound search for the most valuable packing of any subset of the
+// pieces, for when they cannot all be placed. It walks the board like the anchor
+// search (fill the first empty cell with any remaining piece, or leave it empty),
+// and cuts every branch whose upper bound cannot beat the best packing found so
+// far. The bound is a fractional knapsack: the remaining pieces, best value per
+// cell first, poured into the free cells that are not in regions too small (or
+// of the wrong size) for any remaining piece.
+//
+// The search is anytime: each improvement is reported to the listener as it is
+// found, and a stopped search still returns the best packing seen.
+public class PackingOptimizer {
+
+    // What a packing is worth
+    public enum Objective {
+        AREA, // cells covered
+        PIECES, // pieces placed
+        WEIGHTED // sum of SolverOptions.pieceValues per placed piece
+    }
+
+    // Told about every strictly better packing, from the searching thread
+    public interface Listener {
+        void onImprovement(int[][] board, long value);
+    }
+
+    private final PlacementTable table;
+    private final int pieceCount;
+    private final int[] remaining;
+    private final int[] areas;
+    private final long[] values;
+    private final long[] occupied;
+    private final int[] chosen;
+    private final RegionPruner pruner;
+
+    // Piece types by value per cell, best first, for the bound
+    private final int[] byDensity;
+
+    private int placed;
+    private long value;
+    private int free;
+
+    private int[] best = new int[0];
+    private long bestValue;
+    private Listener listener;
+
+    private SearchControl control;
+    private int nodes;
+    private boolean halted;
+    private SearchStats stats;
+
+    // values[type - 1] is what one piece of each type is worth (non-negative)
+    public PackingOptimizer(PlacementTable table, PieceCatalog catalog, int[] pieces, long[] values) {
+        this.table = table;
+        this.pieceCount = pieces.length;
+        this.remaining = new int[catalog.typeCount()];
+        this.areas = new int[catalog.typeCount()];
+        this.values = values;
+        this.occupied = table.emptyBoard();
+        this.chosen = new int[pieces.length];
+        this.pruner = new RegionPruner(table);
+        this.free = table.freeCells;
+
+        for (int type = 1; type <= areas.length; type++) {
+            areas[type - 1] = catalog.area(type);
+        }
+        for (int pieceType : pieces) {
+            remaining[pieceType - 1]++;
+        }
+
+        List<Integer> types = new ArrayList<>();
+        for (int type = 0; type < remaining.length; type++) {
+            if (remaining[type] > 0 && values[type] > 0) {
+                types.add(type);
+            }
+        }
+        // Compare value / area without division: a / b > c / d  <=>  a * d > c * b
+        types.sort((a, b) -> Long.compare(values[b] * areas[a], values[a] * areas[b]));
+        byDensity = new int[types.size()];
+        for (int i = 0; i < byDensity.length; i++) {
+            byDensity[i] = types.get(i);
+        }
+    }
+
+    // Stop searching once the control says so
+    public void setControl(SearchControl control) {
+        this.control = control;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // Collect search statistics into stats (null to disable)
+    public void setStats(SearchStats stats) {
+        this.stats = stats;
+    }
+
+    // Search until the best packing is proven or the control stops the search;
+    // returns true if the search finished (the best packing is optimal)
+    public boolean optimize() {
+        search(0);
+        flushNodes();
+        return !halted;
+    }
+
+    // The best packing found, as a board (no pieces placed if nothing was worth anything)
+    public int[][] getBoard() {
+        return table.toBoard(best, best.length);
+    }
+
+    public long getValue() {
+        return bestValue;
+    }
+
+    public int getPiecesPlaced() {
+        return best.length;
+    }
+
+    // Upper bound on the value any packing can reach
+    public long getBound() {
+        return bound(free);
+    }
+
+    private void search(int from) {
+        if (stopped()) {
+            return;
+        }
+        if (stats != null) {
+            stats.nodes++;
+        }
+        if (value > bestValue) {
+            improve();
+        }
+        if (placed == pieceCount) {
+            return;
+        }
+
+        int cell = table.firstEmpty(occupied, from);
+        if (cell < 0) {
+            return;
+        }
+
+        int capacity = capacity();
+        int[][] anchored = table.byAnchor[cell];
+        for (int type = 0; type < remaining.length; type++) {
+            if (remaining[type] == 0) {
+                continue;
+            }
+            for (int p : anchored[type]) {
+                if (!promising(capacity)) {
+                    return;
+                }
+                if (stats != null) {
+                    stats.tried++;
+                }
+                if (table.fits(occupied, p)) {
+                    place(p, type);
+                    search(cell + 1);
+                    unplace(p, type);
+                    if (halted) {
+                        return;
+                    }
+                    if (stats != null) {
+                        stats.backtracks[placed]++;
+                    }
+                } else if (stats != null) {
+                    stats.rejected++;
+                }
+            }
+        }
+
+        // Leave this cell empty (capacity may already exclude it, so it stays a valid bound)
+        occupied[cell >>> 6] |= 1L << cell;
+        free--;
+        if (promising(capacity)) {
+            search(cell + 1);
+        }
+        free++;
+        occupied[cell >>> 6] &= ~(1L << cell);
+    }
+
+    // Whether the remaining pieces could still lift this branch above the best
+    private boolean promising(int capacity) {
+        if (value + bound(capacity) > bestValue) {
+            return true;
+        }
+        if (stats != null) {
+            stats.prune(SearchStats.Prune.BOUND);
+        }
+        return false;
+    }
+
+    // Free cells some remaining piece could still cover
+    private int capacity() {
+        int minArea = Integer.MAX_VALUE, areaGcd = 0;
+        for (int type : byDensity) {
+            if (remaining[type] > 0) {
+                minArea = Math.min(minArea, areas[type]);
+                areaGcd = RegionPruner.gcd(areaGcd, areas[type]);
+            }
+        }
+        if (areaGcd == 0) {
+            return 0;
+        }
+        return free - pruner.wasted(occupied, minArea, areaGcd, free);
+    }
+
+    // Fractional knapsack of the remaining pieces into capacity cells
+    private long bound(int capacity) {
+        long total = 0;
+        for (int type : byDensity) {
+            if (capacity == 0) {
+                break;
+            }
+            int whole = Math.min(remaining[type], capacity / areas[type]);
+            total += whole * values[type];
+            capacity -= whole * areas[type];
+            if (whole < remaining[type]) {
+                // Values are integers, so rounding the fractional piece down stays an upper bound
+                total += values[type] * capacity / areas[type];
+                break;
+            }
+        }
+        return total;
+    }
+
+    private void place(int p, int type) {
+        table.toggle(occupied, p);
+        remaining[type]--;
+        chosen[placed++] = p;
+        value += values[type];
+        free -= areas[type];
+    }
+
+    private void unplace(int p, int type) {
+        table.toggle(occupied, p);
+        remaining[type]++;
+        placed--;
+        value -= values[type];
+        free += areas[type];
+    }
+
+    private void improve() {
+        bestValue = value;
+        best = new int[placed];
+        System.arraycopy(chosen, 0, best, 0, placed);
+        if (listener != null) {
+            listener.onImprovement(getBoard(), bestValue);
+        }
+    }
+
+    // Poll the search control every CHECK_INTERVAL nodes, sampling the current
+    // placements when a progress snapshot is due
+    private boolean stopped() {
+        if (control != null && ++nodes == SearchControl.CHECK_INTERVAL) {
+            nodes = 0;
+            halted = control.checkpoint(SearchControl.CHECK_INTERVAL);
+            if (control.snapshotDue()) {
+                control.snapshot(table.toBoard(chosen, placed));
+            }
+        }
+        return halted;
+    }
+
+    // Report nodes not yet counted by a checkpoint
+    private void flushNodes() {
+        if (control != null) {
+            control.addNodes(nodes);
+            nodes = 0;
+        }
+    }
+}
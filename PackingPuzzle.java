@@ -1,3 +1,4 @@
+import java.io.File;
 import java.util.*;
 import javax.swing.SwingUtilities;
 
@@ -17,47 +18,408 @@ public class PackingPuzzle {
             { { 0, 1 }, { 0, 2 }, { 1, 0 }, { 1, 1 } } // Piece 11: Quad Z-shape rotated (11)
     };
 
+    private static final String[] PIECE_NAMES = {
+            "Single square", "Double vertical", "Triple horizontal", "Triple L-shape", "Quad horizontal",
+            "Square", "Triple L-shape down", "Triple L-shape up", "Quad T-shape", "Quad Z-shape",
+            "Quad Z-shape rotated"
+    };
+
+    // Pieces in use: the built-in set above unless a library is loaded at startup.
+    // Each solve reads it once, so swapping it never affects a running search.
+    private static volatile PieceLibrary library = new PieceLibrary(PIECE_NAMES, PIECES, null);
+
+    // Available solver implementations
+    public enum Engine {
+        BACKTRACK, // Original int[][] scan with runtime rotation math
+        BITBOARD, // Same piece order over precomputed, deduplicated placement masks (orientations outermost)
+        ANCHOR, // Fill the first empty cell each step, identical pieces as a multiset
+        DLX, // Dancing Links exact cover; partial packings fall back to ANCHOR
+        PORTFOLIO // Exact, local and randomized-restart searches raced on several threads
+    }
+
     public static int[][] packingPuzzle(int[] pieces, int size) throws Exception {
+        return packingPuzzle(pieces, size, Engine.BITBOARD);
+    }
+
+    public static int[][] packingPuzzle(int[] pieces, int size, Engine engine) throws Exception {
+        return packingPuzzle(pieces, size, new SolverOptions().engine(engine));
+    }
+
+    // Anchor search split across the given number of worker threads
+    public static int[][] packingPuzzle(int[] pieces, int size, int parallelism) throws Exception {
+        return packingPuzzle(pieces, size, new SolverOptions().engine(Engine.ANCHOR).parallelism(parallelism));
+    }
+
+    public static int[][] packingPuzzle(int[] pieces, int size, SolverOptions options) throws Exception {
+        return packingPuzzle(pieces, BoardShape.square(size), options);
+    }
+
+    // A width x height board; blocked[row][col] marks cells no piece may cover
+    // (null for none), and they hold BoardShape.BLOCKED in the returned board
+    public static int[][] packingPuzzle(int[] pieces, int width, int height, boolean[][] blocked) throws Exception {
+        return packingPuzzle(pieces, new BoardShape(width, height, blocked), new SolverOptions());
+    }
+
+    public static int[][] packingPuzzle(int[] pieces, BoardShape board, SolverOptions options) throws Exception {
+        SolveResult result = solve(pieces, board, options, new SearchControl());
+
+        if (result.isSolved()) {
+            return result.getBoard();
+        } else {
+            return board.newBoard();
+        }
+    }
+
+    // Solve under a control that can cancel the search or bound it by time or nodes
+    public static SolveResult solve(int[] pieces, int size, SolverOptions options, SearchControl control)
+            throws Exception {
+        return solve(pieces, BoardShape.square(size), options, control);
+    }
+
+    public static SolveResult solve(int[] pieces, BoardShape board, SolverOptions options, SearchControl control)
+            throws Exception {
+        return solve(null, pieces, board, options, control);
+    }
+
+    // Solve again after the pieces or the board changed, starting from previous,
+    // an earlier packing (of any size). Its pieces that are still wanted and still
+    // fit stay put while the rest go into the space around them, ripping up nearby
+    // pieces if needed, before falling back to a full search with the options' engine.
+    public static SolveResult resolve(int[][] previous, int[] pieces, int size, SolverOptions options,
+            SearchControl control) throws Exception {
+        return resolve(previous, pieces, BoardShape.square(size), options, control);
+    }
+
+    public static SolveResult resolve(int[][] previous, int[] pieces, BoardShape board, SolverOptions options,
+            SearchControl control) throws Exception {
+        return solve(previous, pieces, board, options, control);
+    }
+
+    private static SolveResult solve(int[][] previous, int[] pieces, BoardShape board, SolverOptions options,
+            SearchControl control) throws Exception {
+        PieceLibrary lib = library;
+        checkPieces(pieces, lib);
+
+        Precheck.Rule rule = Precheck.check(lib.catalog(), pieces, board, options.isReflections());
+        if (rule != null) {
+            return SolveResult.rejected(rule);
+        }
+
+        SolutionStore store = options.getSolutionStore();
+        String key = null;
+        if (store != null) {
+            key = SolutionStore.key(lib, pieces, board, options.isReflections());
+            SolutionStore.Entry entry = store.get(key);
+            if (entry != null) {
+                return SolveResult.cached(entry);
+            }
+        }
+
+        SearchStats stats = options.isCollectStats() ? new SearchStats(options.getEngine().name(), pieces.length)
+                : null;
+        long start = System.nanoTime();
+        control.start();
+        int[][] packing = null;
+        if (previous != null && previous.length > 0 && previous[0].length > 0) {
+            IncrementalSolver incremental = new IncrementalSolver(placements(lib, board, options), lib.catalog(),
+                    pieces, options.isRegionPruning());
+            incremental.setStats(stats);
+            BoardShape before = new BoardShape(previous[0].length, previous.length);
+            packing = incremental.repair(previous, placements(lib, before, options), control);
+        }
+        if (packing == null && !control.isStopped()) {
+            packing = search(lib, pieces, board, options, control, stats);
+        }
+
+        SolveResult result = SolveResult.of(packing, control);
+        if (store != null && (result.isSolved() || result.getStatus() == SolveResult.Status.NO_SOLUTION)) {
+            store.put(key, packing);
+        }
+        if (stats != null) {
+            stats.elapsedNanos = System.nanoTime() - start;
+            result.setStats(stats);
+        }
+        return result;
+    }
+
+    // Best packing of any subset of the pieces under options.getObjective(), for
+    // when they may not all fit. Bound the time with the control's timeout; the
+    // listener (may be null) hears about each better packing as it is found.
+    public static OptimizationResult optimize(int[] pieces, int size, SolverOptions options, SearchControl control,
+            PackingOptimizer.Listener listener) throws Exception {
+        return optimize(pieces, BoardShape.square(size), options, control, listener);
+    }
+
+    public static OptimizationResult optimize(int[] pieces, BoardShape board, SolverOptions options,
+            SearchControl control, PackingOptimizer.Listener listener) throws Exception {
+        PieceLibrary lib = library;
+        checkPieces(pieces, lib);
+
+        long[] values = new long[lib.size()];
+        for (int type = 1; type <= lib.size(); type++) {
+            switch (options.getObjective()) {
+                case AREA:
+                    values[type - 1] = lib.catalog().area(type);
+                    break;
+                case PIECES:
+                    values[type - 1] = 1;
+                    break;
+                default:
+                    long[] weights = options.getPieceValues();
+                    if (weights == null || weights.length < lib.size()) {
+                        throw new IllegalArgumentException("The WEIGHTED objective needs a value for every piece type");
+                    }
+                    values[type - 1] = weights[type - 1];
+            }
+        }
+
+        SearchStats stats = options.isCollectStats() ? new SearchStats("OPTIMIZE", pieces.length) : null;
+        long start = System.nanoTime();
+        control.start();
+        PackingOptimizer optimizer = new PackingOptimizer(placements(lib, board, options), lib.catalog(), pieces,
+                values);
+        long bound = optimizer.getBound();
+        optimizer.setControl(control);
+        optimizer.setListener(listener);
+        optimizer.setStats(stats);
+        boolean optimal = optimizer.optimize();
+
+        OptimizationResult result = new OptimizationResult(optimizer.getBoard(), optimizer.getValue(),
+                optimizer.getPiecesPlaced(), bound, optimal ? null : control.getStop());
+        if (stats != null) {
+            stats.elapsedNanos = System.nanoTime() - start;
+            result.setStats(stats);
+        }
+        return result;
+    }
+
+    // Stream every packing to the listener as it is found (the listener returns
+    // false to stop) and return how many were delivered
+    public static long forEachSolution(int[] pieces, int size, SolverOptions options, SearchControl control,
+            SolutionListener listener) throws Exception {
+        return forEachSolution(pieces, BoardShape.square(size), options, control, listener);
+    }
+
+    public static long forEachSolution(int[] pieces, BoardShape board, SolverOptions options, SearchControl control,
+            SolutionListener listener) throws Exception {
+        PieceLibrary lib = library;
+        checkPieces(pieces, lib);
+        if (Precheck.check(lib.catalog(), pieces, board, options.isReflections()) != null) {
+            return 0;
+        }
+
+        control.start();
+        PlacementTable table = placements(lib, board, options);
+        AnchorSolver solver = new AnchorSolver(table, lib.catalog(), pieces, options.isRegionPruning());
+        solver.setControl(control);
+        solver.setCache(options.getDeadStateCache());
+        SymmetryFilter symmetry = options.isDistinctUnderSymmetry()
+                ? new SymmetryFilter(table, options.isReflections())
+                : null;
+        return solver.enumerate(listener, symmetry);
+    }
+
+    // Count every packing without building boards, split across options.getParallelism()
+    // threads; progress (may be null) is told the running total as each subtree finishes
+    public static long countSolutions(int[] pieces, int size, SolverOptions options, SearchControl control,
+            SolutionCounter.Progress progress) throws Exception {
+        return countSolutions(pieces, BoardShape.square(size), options, control, progress);
+    }
+
+    public static long countSolutions(int[] pieces, BoardShape board, SolverOptions options, SearchControl control,
+            SolutionCounter.Progress progress) throws Exception {
+        PieceLibrary lib = library;
+        checkPieces(pieces, lib);
+        if (Precheck.check(lib.catalog(), pieces, board, options.isReflections()) != null) {
+            return 0;
+        }
+
+        control.start();
+        PlacementTable table = placements(lib, board, options);
+        AnchorSolver solver = new AnchorSolver(table, lib.catalog(), pieces, options.isRegionPruning());
+        solver.setCache(options.getDeadStateCache());
+        return new SolutionCounter(solver, table, options).count(control, progress);
+    }
+
+    // The pre-check rule that rules out a packing without searching, or null if none applies
+    public static Precheck.Rule precheck(int[] pieces, int size, SolverOptions options) {
+        return precheck(pieces, BoardShape.square(size), options);
+    }
+
+    public static Precheck.Rule precheck(int[] pieces, BoardShape board, SolverOptions options) {
+        return Precheck.check(library.catalog(), pieces, board, options.isReflections());
+    }
+
+    // Number of piece types; valid piece numbers run from 1 to this
+    public static int pieceTypes() {
+        return library.size();
+    }
+
+    public static PieceLibrary getLibrary() {
+        return library;
+    }
+
+    // Replace the piece set, normally once at startup before any solve
+    public static void setLibrary(PieceLibrary library) {
+        PackingPuzzle.library = library;
+    }
+
+    private static void checkPieces(int[] pieces, PieceLibrary lib) throws Exception {
         if (pieces == null || pieces.length == 0) {
             throw new Exception("no pieces!");
         }
+        for (int pieceType : pieces) {
+            if (pieceType < 1 || pieceType > lib.size()) {
+                throw new Exception("Unknown piece type: " + pieceType);
+            }
+        }
+    }
 
-        int[][] board = new int[size][size];
+    // Full search with the options' engine
+    private static int[][] search(PieceLibrary lib, int[] pieces, BoardShape board, SolverOptions options,
+            SearchControl control, SearchStats stats) {
+        int[][] packing;
+        switch (options.getEngine()) {
+            case BACKTRACK:
+                if (options.isReflections()) {
+                    throw new IllegalArgumentException("The BACKTRACK engine does not support reflections");
+                }
+                int[] sequence = pieces;
+                if (options.getPieceOrder() != PieceOrder.INPUT) {
+                    sequence = options.getPieceOrder().order(pieces, lib.catalog(), placements(lib, board, options));
+                }
+                packing = board.newBoard();
+                Checkpoints checks = new Checkpoints();
+                if (!solve(packing, lib.catalog(), sequence, 0, control, stats, checks)) {
+                    packing = null;
+                }
+                control.addNodes(checks.nodes);
+                break;
+            case BITBOARD:
+                PlacementTable table = placements(lib, board, options);
+                BitboardSolver bitboard = new BitboardSolver(table, lib.catalog(),
+                        options.getPieceOrder().order(pieces, lib.catalog(), table), options.isRegionPruning());
+                bitboard.setControl(control);
+                bitboard.setPlacementOrder(options.getPlacementOrder());
+                bitboard.setCache(options.getDeadStateCache());
+                bitboard.setStats(stats);
+                packing = bitboard.solve();
+                break;
+            case ANCHOR:
+                packing = anchorSearch(lib, pieces, board, options, control, stats);
+                break;
+            case DLX:
+                if (totalArea(lib, pieces) == board.getFreeCells()) {
+                    DlxSolver dlx = new DlxSolver(placements(lib, board, options), lib.catalog(), pieces);
+                    dlx.setControl(control);
+                    dlx.setStats(stats);
+                    packing = dlx.solve();
+                } else {
+                    packing = anchorSearch(lib, pieces, board, options, control, stats);
+                }
+                break;
+            case PORTFOLIO:
+                PortfolioSolver portfolio = new PortfolioSolver(placements(lib, board, options), lib.catalog(), pieces,
+                        options);
+                portfolio.setStats(stats);
+                packing = portfolio.solve(control);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + options.getEngine());
+        }
+        return packing;
+    }
 
-        if (solve(board, size, pieces, 0)) {
-            return board;
-        } else {
-            return new int[size][size];
+    // Placement tables are read-only once built, so the library keeps one per
+    // rectangle and reflection setting for every solve (and every batch thread)
+    private static PlacementTable placements(PieceLibrary lib, BoardShape board, SolverOptions options) {
+        return lib.placements(board, options.isReflections());
+    }
+
+    private static int[][] anchorSearch(PieceLibrary lib, int[] pieces, BoardShape board, SolverOptions options,
+            SearchControl control, SearchStats stats) {
+        AnchorSolver solver = new AnchorSolver(placements(lib, board, options), lib.catalog(), pieces,
+                options.isRegionPruning());
+        solver.setCache(options.getDeadStateCache());
+        solver.setStats(stats);
+        if (options.getParallelism() > 1) {
+            return new ParallelSolver(solver, options.getParallelism(), control).solve();
+        }
+        solver.setControl(control);
+        return solver.solve();
+    }
+
+    private static int totalArea(PieceLibrary lib, int[] pieces) {
+        int area = 0;
+        for (int pieceType : pieces) {
+            area += lib.catalog().area(pieceType);
         }
+        return area;
+    }
+
+    // Nodes the BACKTRACK engine has visited since its last checkpoint, and
+    // whether the control has stopped it
+    private static final class Checkpoints {
+        int nodes;
+        boolean halted;
     }
 
-    private static boolean solve(int[][] board, int size, int[] pieces, int pieceIndex) {
+    // Blocked cells are pre-filled in board, so canPlace already treats them as taken
+    private static boolean solve(int[][] board, PieceCatalog catalog, int[] pieces, int pieceIndex,
+            SearchControl control, SearchStats stats, Checkpoints checks) {
         if (pieceIndex == pieces.length) {
             return true;
         }
 
-        // Get the current piece type (1-11)
+        // Poll the control every CHECK_INTERVAL nodes, like the other engines
+        if (++checks.nodes == SearchControl.CHECK_INTERVAL) {
+            checks.nodes = 0;
+            checks.halted = control.checkpoint(SearchControl.CHECK_INTERVAL);
+            if (control.snapshotDue()) {
+                int[][] copy = new int[board.length][];
+                for (int row = 0; row < board.length; row++) {
+                    copy[row] = board[row].clone();
+                }
+                control.snapshot(copy);
+            }
+        }
+        if (checks.halted) {
+            return false;
+        }
+        if (stats != null) {
+            stats.nodes++;
+        }
+
+        // Get the current piece type
         int pieceType = pieces[pieceIndex];
 
         // Get the shape of the piece
-        int[][] pieceShape = PIECES[pieceType - 1];
+        int[][] pieceShape = catalog.shape(pieceType);
 
         // Try to place the piece at each position on the board
-        for (int row = 0; row < size; row++) {
-            for (int col = 0; col < size; col++) {
+        for (int row = 0; row < board.length; row++) {
+            for (int col = 0; col < board[row].length; col++) {
                 // Try each of the 4 possible rotations
                 for (int rotation = 0; rotation < 4; rotation++) {
-                    if (canPlace(board, size, pieceShape, row, col, pieceType, rotation)) {
+                    if (stats != null) {
+                        stats.tried++;
+                    }
+                    if (canPlace(board, pieceShape, row, col, pieceType, rotation)) {
                         // Place the piece
                         place(board, pieceShape, row, col, pieceType, rotation);
 
                         // Recursively try to place the next piece
-                        if (solve(board, size, pieces, pieceIndex + 1)) {
+                        if (solve(board, catalog, pieces, pieceIndex + 1, control, stats, checks)) {
                             return true;
                         }
 
                         // If placing the next piece doesn't work, remove this piece
                         remove(board, pieceShape, row, col, rotation);
+                        if (stats != null) {
+                            stats.backtracks[pieceIndex]++;
+                        }
+                    } else if (stats != null) {
+                        stats.rejected++;
                     }
                 }
             }
@@ -67,7 +429,7 @@ public class PackingPuzzle {
     }
 
     // Check if a piece can be placed at the given position with the given rotation
-    private static boolean canPlace(int[][] board, int size, int[][] pieceShape, int row, int col,
+    private static boolean canPlace(int[][] board, int[][] pieceShape, int row, int col,
             int pieceType, int rotation) {
         for (int[] point : pieceShape) {
             int newRow, newCol;
@@ -95,7 +457,7 @@ public class PackingPuzzle {
             }
 
             // Check if the position is valid
-            if (newRow < 0 || newRow >= size || newCol < 0 || newCol >= size
+            if (newRow < 0 || newRow >= board.length || newCol < 0 || newCol >= board[0].length
                     || board[newRow][newCol] != 0) {
                 return false;
             }
@@ -167,7 +529,16 @@ public class PackingPuzzle {
         }
     }
 
-    public static void main(String[] args) {
-        PackingPuzzleGUI.displayGUI(PIECES);
+    // "--library FILE" replaces the built-in pieces. With no other arguments
+    // opens the GUI; any other arguments run the headless BatchSolver.
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 2 && args[0].equals("--library")) {
+            setLibrary(PieceLibrary.load(new File(args[1])));
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        if (args.length > 0) {
+            System.exit(BatchSolver.run(args));
+        }
+        PackingPuzzleGUI.displayGUI(library);
     }
 }
@@ -1,6 +1,8 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.ArrayList;
@@ -8,10 +10,17 @@ import java.util.List;
 
 public class PackingPuzzleGUI extends JFrame {
     private int[][] board;
-    private int[][][] pieceDictionary;
+    private PieceLibrary library;
     private BoardPanel boardPanel;
     private JTextField sizeField;
     private JTextField piecesField;
+    private JComboBox<PackingPuzzle.Engine> engineBox;
+    private JButton cancelButton;
+    // Control of the search currently running, if any
+    private SearchControl activeSearch;
+    private SolutionStore solutionStore;
+    // Last packing found, repaired rather than rebuilt when the selection or size changes
+    private int[][] lastSolution;
     private List<Integer> selectedPieces = new ArrayList<>();
     private JLabel statusLabel;
     // Track the count of each piece type for UI updates
@@ -19,14 +28,29 @@ public class PackingPuzzleGUI extends JFrame {
     // Keep references to all piece panels
     private Map<Integer, JPanel> piecePanels = new HashMap<>();
 
+    // Color of each piece type (index = pieceType), resolved once for painting
+    private final Color[] pieceColors;
+
     private static final Color[] COLORS = {
             Color.RED, Color.BLUE, Color.GREEN, Color.YELLOW, Color.ORANGE,
             Color.MAGENTA, Color.CYAN, Color.PINK, Color.LIGHT_GRAY, Color.GRAY, Color.BLACK
     };
 
-    public PackingPuzzleGUI(int[][][] pieceDictionary) {
-        this.pieceDictionary = pieceDictionary;
+    // Painting resources shared by every repaint
+    private static final Font MESSAGE_FONT = new Font("Arial", Font.BOLD, 18);
+    private static final Stroke BOARD_BORDER = new BasicStroke(3);
+
+    // How often a running search sends the board it is working on
+    private static final long PROGRESS_MILLIS = 100;
+
+    public PackingPuzzleGUI(PieceLibrary library) {
+        this.library = library;
+        this.pieceColors = new Color[library.size() + 1];
+        for (int pieceType = 1; pieceType <= library.size(); pieceType++) {
+            pieceColors[pieceType] = colorOf(pieceType);
+        }
         this.board = new int[0][0]; // Initially empty board
+        this.solutionStore = openSolutionStore();
         setTitle("Packing Puzzle");
         setSize(1100, 700);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -49,9 +73,9 @@ public class PackingPuzzleGUI extends JFrame {
         sidePanel.setPreferredSize(new Dimension(300, getHeight()));
 
         // Create piece panels with clickable behavior
-        for (int i = 0; i < pieceDictionary.length; i++) {
+        for (int i = 0; i < library.size(); i++) {
             int pieceNumber = i + 1;
-            int[][] pieceShape = pieceDictionary[i];
+            int[][] pieceShape = library.shape(pieceNumber);
 
             // Initialize piece count
             pieceCount.put(pieceNumber, 0);
@@ -104,6 +128,11 @@ public class PackingPuzzleGUI extends JFrame {
         piecesField = new JTextField(30);
         piecesField.setEditable(false);
 
+        // Solver engine selection
+        JLabel engineLabel = new JLabel("Engine:");
+        engineBox = new JComboBox<>(PackingPuzzle.Engine.values());
+        engineBox.setSelectedItem(PackingPuzzle.Engine.BITBOARD);
+
         // Status label
         statusLabel = new JLabel("Left-click to add pieces, right-click to remove. Enter board size and click Solve");
         statusLabel.setForeground(Color.BLUE);
@@ -117,6 +146,16 @@ public class PackingPuzzleGUI extends JFrame {
             }
         });
 
+        // Cancel button, enabled while a search is running
+        cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                cancelSolve();
+            }
+        });
+
         // Clear button
         JButton clearButton = new JButton("Clear Selection");
         clearButton.addActionListener(new ActionListener() {
@@ -130,7 +169,10 @@ public class PackingPuzzleGUI extends JFrame {
         inputPanel.add(sizeField);
         inputPanel.add(piecesLabel);
         inputPanel.add(piecesField);
+        inputPanel.add(engineLabel);
+        inputPanel.add(engineBox);
         inputPanel.add(solveButton);
+        inputPanel.add(cancelButton);
         inputPanel.add(clearButton);
 
         controlPanel.add(inputPanel, BorderLayout.NORTH);
@@ -184,18 +226,22 @@ public class PackingPuzzleGUI extends JFrame {
 
         // Clear the board
         board = new int[0][0];
+        lastSolution = null;
         boardPanel.repaint();
         statusLabel.setText("Left-click to add pieces, right-click to remove. Enter board size and click Solve");
     }
 
     private void solvePuzzle() {
         try {
-            // Get board size
-            int size = Integer.parseInt(sizeField.getText().trim());
-            if (size <= 0) {
+            // Get board size: N for a square board, or WxH for a rectangle
+            String[] dimensions = sizeField.getText().trim().split("\\s*[xX]\\s*", 2);
+            int width = Integer.parseInt(dimensions[0]);
+            int height = dimensions.length > 1 ? Integer.parseInt(dimensions[1]) : width;
+            if (width <= 0 || height <= 0) {
                 statusLabel.setText("Board size must be a positive number");
                 return;
             }
+            BoardShape shape = new BoardShape(width, height);
 
             // Check if pieces are selected
             if (selectedPieces.isEmpty()) {
@@ -209,40 +255,83 @@ public class PackingPuzzleGUI extends JFrame {
                 pieces[i] = selectedPieces.get(i);
             }
 
+            PackingPuzzle.Engine engine = (PackingPuzzle.Engine) engineBox.getSelectedItem();
+
+            // Only one search at a time: stop the previous one before starting another
+            cancelSolve();
+            SearchControl control = new SearchControl();
+            activeSearch = control;
+            cancelButton.setEnabled(true);
+
             statusLabel.setText("Solving puzzle...");
 
-            // Solve in background thread to keep UI responsive
-            new SwingWorker<int[][], Void>() {
+            // The worker repairs this packing; lastSolution itself is only touched on the EDT
+            int[][] previous = lastSolution;
+
+            // Solve in background thread to keep UI responsive, showing the board
+            // being searched as the solver samples it
+            long started = System.nanoTime();
+            new SwingWorker<SolveResult, int[][]>() {
                 @Override
-                protected int[][] doInBackground() throws Exception {
-                    return PackingPuzzle.packingPuzzle(pieces, size);
+                protected SolveResult doInBackground() throws Exception {
+                    control.progress((snapshot, nodes) -> publish(snapshot), PROGRESS_MILLIS);
+                    SolverOptions options = new SolverOptions().engine(engine).collectStats(true)
+                            .solutionStore(solutionStore);
+                    return PackingPuzzle.resolve(previous, pieces, shape, options, control);
+                }
+
+                // Snapshots published faster than the EDT runs arrive together; only the latest matters
+                @Override
+                protected void process(List<int[][]> snapshots) {
+                    if (activeSearch != control) {
+                        return;
+                    }
+                    board = snapshots.get(snapshots.size() - 1);
+                    long seconds = (System.nanoTime() - started) / 1_000_000_000L;
+                    statusLabel.setText(
+                            String.format("Solving puzzle... %,d nodes in %d s", control.getNodes(), seconds));
+                    boardPanel.repaint();
                 }
 
                 @Override
                 protected void done() {
+                    // A newer search has replaced this one; leave the display to it
+                    if (activeSearch != control) {
+                        return;
+                    }
+                    activeSearch = null;
+                    cancelButton.setEnabled(false);
+
                     try {
-                        board = get();
-                        if (board != null && board.length > 0) {
-                            // Check if we have a solution by looking for any non-zero value
-                            boolean hasSolution = false;
-                            for (int i = 0; i < board.length; i++) {
-                                for (int j = 0; j < board[i].length; j++) {
-                                    if (board[i][j] > 0) {
-                                        hasSolution = true;
-                                        break;
-                                    }
-                                }
-                                if (hasSolution)
-                                    break;
-                            }
+                        SolveResult result = get();
+                        board = result.isSolved() ? result.getBoard() : shape.newBoard();
+                        if (result.isSolved()) {
+                            lastSolution = result.getBoard();
+                        }
 
-                            if (hasSolution) {
+                        switch (result.getStatus()) {
+                            case SOLVED:
                                 statusLabel.setText("Solution found!");
-                            } else {
-                                statusLabel.setText("No solution found for the selected pieces and board size");
-                            }
-                        } else {
-                            statusLabel.setText("No solution found for the selected pieces and board size");
+                                break;
+                            case CANCELLED:
+                                statusLabel.setText("Search cancelled");
+                                break;
+                            case TIMED_OUT:
+                            case NODE_LIMIT:
+                                statusLabel.setText("Search stopped before finding a solution");
+                                break;
+                            default:
+                                if (result.getRejection() != null) {
+                                    statusLabel.setText("No solution: " + result.getRejection().getDescription());
+                                } else {
+                                    statusLabel.setText("No solution found for the selected pieces and board size");
+                                }
+                        }
+                        if (result.isCached()) {
+                            statusLabel.setText(statusLabel.getText() + " (cached)");
+                        }
+                        if (result.getStats() != null) {
+                            statusLabel.setText(statusLabel.getText() + " - " + result.getStats().summary());
                         }
                         boardPanel.repaint();
                     } catch (Exception e) {
@@ -252,7 +341,13 @@ public class PackingPuzzleGUI extends JFrame {
             }.execute();
 
         } catch (NumberFormatException e) {
-            statusLabel.setText("Invalid board size. Please enter a valid number.");
+            statusLabel.setText("Invalid board size. Please enter a number or WxH, e.g. 8x5.");
+        }
+    }
+
+    private void cancelSolve() {
+        if (activeSearch != null) {
+            activeSearch.cancel();
         }
     }
 
@@ -278,14 +373,14 @@ public class PackingPuzzleGUI extends JFrame {
                 int offsetY = (getHeight() - (maxRow + 1) * cellSize) / 2;
 
                 // Draw the piece
-                g.setColor(COLORS[pieceNumber - 1]);
+                g.setColor(pieceColors[pieceNumber]);
                 for (int[] point : pieceShape) {
                     int x = offsetX + point[1] * cellSize;
                     int y = offsetY + point[0] * cellSize;
                     g.fillRect(x, y, cellSize, cellSize);
                     g.setColor(Color.BLACK);
                     g.drawRect(x, y, cellSize, cellSize);
-                    g.setColor(COLORS[pieceNumber - 1]);
+                    g.setColor(pieceColors[pieceNumber]);
                 }
             }
         };
@@ -302,6 +397,7 @@ public class PackingPuzzleGUI extends JFrame {
         container.add(panel, BorderLayout.CENTER);
         container.add(label, BorderLayout.SOUTH);
         container.setBackground(Color.WHITE);
+        container.setToolTipText(library.name(pieceNumber));
 
         return container;
     }
@@ -313,7 +409,7 @@ public class PackingPuzzleGUI extends JFrame {
 
             if (board.length == 0) {
                 g.setColor(Color.GRAY);
-                g.setFont(new Font("Arial", Font.BOLD, 18));
+                g.setFont(MESSAGE_FONT);
                 FontMetrics fm = g.getFontMetrics();
                 String message = "Solution will appear here";
                 int textWidth = fm.stringWidth(message);
@@ -330,11 +426,6 @@ public class PackingPuzzleGUI extends JFrame {
             int offsetX = (getWidth() - cols * cellSize) / 2;
             int offsetY = (getHeight() - rows * cellSize) / 2;
 
-            Map<Integer, Color> pieceColors = new HashMap<>();
-            for (int i = 0; i < COLORS.length; i++) {
-                pieceColors.put(i + 1, COLORS[i]);
-            }
-
             for (int row = 0; row < rows; row++) {
                 for (int col = 0; col < cols; col++) {
                     int pieceType = board[row][col];
@@ -343,8 +434,11 @@ public class PackingPuzzleGUI extends JFrame {
                     g.setColor(Color.BLACK);
                     g.drawRect(offsetX + col * cellSize, offsetY + row * cellSize, cellSize, cellSize);
 
-                    if (pieceType > 0) {
-                        g.setColor(pieceColors.get(pieceType));
+                    if (pieceType == BoardShape.BLOCKED) {
+                        g.setColor(Color.DARK_GRAY);
+                        g.fillRect(offsetX + col * cellSize, offsetY + row * cellSize, cellSize, cellSize);
+                    } else if (pieceType > 0) {
+                        g.setColor(pieceColors[pieceType]);
                         g.fillRect(offsetX + col * cellSize, offsetY + row * cellSize, cellSize, cellSize);
                         g.setColor(Color.BLACK);
                         g.drawRect(offsetX + col * cellSize, offsetY + row * cellSize, cellSize, cellSize);
@@ -354,14 +448,38 @@ public class PackingPuzzleGUI extends JFrame {
 
             // Draw a thicker border around the entire board
             g.setColor(Color.BLACK);
-            ((Graphics2D) g).setStroke(new BasicStroke(3));
+            ((Graphics2D) g).setStroke(BOARD_BORDER);
             g.drawRect(offsetX, offsetY, cols * cellSize, rows * cellSize);
         }
     }
 
-    public static void displayGUI(int[][][] pieceDictionary) {
+    // Answers survive restarts in ~/.packing-puzzle/solutions.log; without it every solve searches
+    private static SolutionStore openSolutionStore() {
+        File file = new File(System.getProperty("user.home"), ".packing-puzzle/solutions.log");
+        try {
+            return new SolutionStore(file, 1000);
+        } catch (IOException e) {
+            System.err.println("Solution cache disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // The library's own color, else the fixed palette, else hues spread by the
+    // golden ratio so any number of pieces stay distinguishable
+    private Color colorOf(int pieceType) {
+        if (library.color(pieceType) >= 0) {
+            return new Color(library.color(pieceType));
+        }
+        if (pieceType <= COLORS.length) {
+            return COLORS[pieceType - 1];
+        }
+        float hue = (pieceType * 0.618034f) % 1f;
+        return Color.getHSBColor(hue, 0.6f, 0.95f);
+    }
+
+    public static void displayGUI(PieceLibrary library) {
         SwingUtilities.invokeLater(() -> {
-            PackingPuzzleGUI gui = new PackingPuzzleGUI(pieceDictionary);
+            PackingPuzzleGUI gui = new PackingPuzzleGUI(library);
             gui.setVisible(true);
         });
     }
@@ -0,0 +1,76 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Runs the anchor search on a work-stealing ForkJoinPool. The first few levels of
+// the search tree are expanded into independent subtasks, each with its own copy
+// of the board; the first subtask to find a packing cancels all the others. It
+// does so through a child of the caller's control, so the caller's control is
+// left as it was and can be reused.
+public class ParallelSolver {
+    // How many levels of the search tree are split into separate tasks
+    private static final int SPLIT_DEPTH = 3;
+
+    private final AnchorSolver root;
+    private final int parallelism;
+    private final SearchControl control;
+    private final AtomicReference<int[][]> solution = new AtomicReference<>();
+
+    public ParallelSolver(AnchorSolver root, int parallelism, SearchControl control) {
+        this.root = root;
+        this.parallelism = parallelism;
+        this.control = control.child(Long.MAX_VALUE);
+        root.setControl(this.control);
+    }
+
+    // Returns the solved board, or null if there is none or the search was stopped
+    public int[][] solve() {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new SubtreeTask(root, 0));
+            return solution.get();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private class SubtreeTask extends RecursiveTask<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final AnchorSolver solver;
+        private final int depth;
+
+        SubtreeTask(AnchorSolver solver, int depth) {
+            this.solver = solver;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Void compute() {
+            if (control.isStopped()) {
+                return null;
+            }
+
+            if (depth >= SPLIT_DEPTH || solver.isComplete()) {
+                int[][] board = solver.solve();
+                SearchStats stats = root.getStats();
+                if (stats != null && solver.getStats() != stats) {
+                    stats.merge(solver.getStats());
+                }
+                if (board != null && solution.compareAndSet(null, board)) {
+                    control.halt();
+                }
+                return null;
+            }
+
+            List<SubtreeTask> tasks = new ArrayList<>();
+            for (AnchorSolver child : solver.expand()) {
+                tasks.add(new SubtreeTask(child, depth + 1));
+            }
+            invokeAll(tasks);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Distinct orientations of every piece type, computed once. Each orientation is
+// normalized so its smallest row and column are 0 and its cells are sorted, which
+// makes symmetric rotations (the single square, the 2x2 square, the straight
+// pieces) collapse into one entry instead of being searched up to 4 times.
+public class PieceCatalog {
+    private final int[][][] shapes;
+
+    // orientations[type - 1] = rotations only, mirrored[type - 1] = rotations plus reflections
+    private final int[][][][] orientations;
+    private final int[][][][] mirrored;
+
+    public PieceCatalog(int[][][] shapes) {
+        this.shapes = shapes;
+        this.orientations = new int[shapes.length][][][];
+        this.mirrored = new int[shapes.length][][][];
+
+        for (int i = 0; i < shapes.length; i++) {
+            orientations[i] = buildOrientations(shapes[i], false);
+            mirrored[i] = buildOrientations(shapes[i], true);
+        }
+    }
+
+    public int typeCount() {
+        return shapes.length;
+    }
+
+    // The canonical shape of a piece type (1-based), as given to the constructor
+    public int[][] shape(int pieceType) {
+        return shapes[pieceType - 1];
+    }
+
+    public int area(int pieceType) {
+        return shapes[pieceType - 1].length;
+    }
+
+    // Distinct normalized orientations of a piece type (1-based)
+    public int[][][] orientations(int pieceType, boolean reflections) {
+        return reflections ? mirrored[pieceType - 1] : orientations[pieceType - 1];
+    }
+
+    private static int[][][] buildOrientations(int[][] shape, boolean reflections) {
+        List<int[][]> result = new ArrayList<>();
+        for (int flip = 0; flip < (reflections ? 2 : 1); flip++) {
+            for (int rotation = 0; rotation < 4; rotation++) {
+                int[][] candidate = normalize(transform(shape, rotation, flip == 1));
+                boolean duplicate = false;
+                for (int[][] existing : result) {
+                    if (Arrays.deepEquals(existing, candidate)) {
+                        duplicate = true;
+                        break;
+                    }
+                }
+                if (!duplicate) {
+                    result.add(candidate);
+                }
+            }
+        }
+        return result.toArray(new int[0][][]);
+    }
+
+    // Rotate a shape by the same convention as PackingPuzzle.canPlace, optionally mirrored first
+    private static int[][] transform(int[][] shape, int rotation, boolean mirror) {
+        int[][] result = new int[shape.length][];
+        for (int i = 0; i < shape.length; i++) {
+            int r = shape[i][0];
+            int c = mirror ? -shape[i][1] : shape[i][1];
+            switch (rotation) {
+                case 0: // No rotation
+                    result[i] = new int[] { r, c };
+                    break;
+                case 1: // 90 degrees clockwise
+                    result[i] = new int[] { c, -r };
+                    break;
+                case 2: // 180 degrees
+                    result[i] = new int[] { -r, -c };
+                    break;
+                case 3: // 270 degrees clockwise
+                    result[i] = new int[] { -c, r };
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid rotation");
+            }
+        }
+        return result;
+    }
+
+    // Shift a shape so its minimum row and column are 0 and sort its cells row-major
+    private static int[][] normalize(int[][] shape) {
+        int minRow = Integer.MAX_VALUE, minCol = Integer.MAX_VALUE;
+        for (int[] point : shape) {
+            minRow = Math.min(minRow, point[0]);
+            minCol = Math.min(minCol, point[1]);
+        }
+        int[][] result = new int[shape.length][];
+        for (int i = 0; i < shape.length; i++) {
+            result[i] = new int[] { shape[i][0] - minRow, shape[i][1] - minCol };
+        }
+        Arrays.sort(result, Comparator.<int[]>comparingInt(p -> p[0]).thenComparingInt(p -> p[1]));
+        return result;
+    }
+}
@@ -0,0 +1,285 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The set of piece shapes the solver and GUI work with. Piece types are
+// numbered from 1 in library order. A library is validated and compiled once:
+// its PieceCatalog holds every distinct orientation, and placement tables for
+// each board it is used on are built once and shared by all later solves.
+//
+// Library files list pieces drawn with X (cell) and . (gap):
+//
+//   # Comment lines start with #
+//   piece T tetromino
+//   color 9467bd        (optional RGB hex used by the GUI)
+//   XXX
+//   .X.
+//
+// Shape rows start in the first column (use . for leading gaps). A piece's rows
+// end at a blank line or the next "piece" line. Every piece must be a non-empty,
+// edge-connected polyomino with a unique name.
+public final class PieceLibrary {
+    // Placement tables of boards with blocked cells kept per library
+    private static final int BLOCKED_TABLES = 64;
+
+    private final String[] names;
+    private final int[][][] shapes;
+    private final int[] colors;
+    private final PieceCatalog catalog;
+    private final String fingerprint;
+    private final Map<String, PlacementTable> placements = new ConcurrentHashMap<>();
+    private final Map<String, PlacementTable> blockedPlacements = new LinkedHashMap<String, PlacementTable>(16,
+            0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PlacementTable> eldest) {
+            return size() > BLOCKED_TABLES;
+        }
+    };
+
+    // shapes[type - 1] lists the (row, col) cells of each piece; colors may be
+    // null, and entries of -1 leave the GUI to pick a color
+    public PieceLibrary(String[] names, int[][][] shapes, int[] colors) {
+        if (shapes.length == 0) {
+            throw new IllegalArgumentException("A piece library needs at least one piece");
+        }
+        if (names.length != shapes.length || (colors != null && colors.length != shapes.length)) {
+            throw new IllegalArgumentException("Piece names, shapes and colors must have the same length");
+        }
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < shapes.length; i++) {
+            if (!seen.add(names[i])) {
+                throw new IllegalArgumentException("Duplicate piece name: " + names[i]);
+            }
+            validate(names[i], shapes[i]);
+        }
+
+        this.names = names.clone();
+        this.shapes = shapes;
+        this.colors = colors != null ? colors.clone() : filled(shapes.length, -1);
+        this.catalog = new PieceCatalog(shapes);
+        this.fingerprint = fingerprint(catalog);
+    }
+
+    public static PieceLibrary load(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return parse(new InputStreamReader(in, StandardCharsets.UTF_8), file.getPath());
+        }
+    }
+
+    // Load a library from the classpath, e.g. "/pieces.txt"
+    public static PieceLibrary loadResource(String name) throws IOException {
+        try (InputStream in = PieceLibrary.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IOException(name + " not found on the classpath");
+            }
+            return parse(new InputStreamReader(in, StandardCharsets.UTF_8), name);
+        }
+    }
+
+    // Parse the library format described above; source names the input in error messages
+    public static PieceLibrary parse(Reader input, String source) throws IOException {
+        BufferedReader reader = new BufferedReader(input);
+        List<String> names = new ArrayList<>();
+        List<int[][]> shapes = new ArrayList<>();
+        List<Integer> colors = new ArrayList<>();
+        List<int[]> cells = null;
+        int row = 0;
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            String where = source + ":" + lineNumber + ": ";
+
+            if (trimmed.startsWith("#")) {
+                continue;
+            }
+            if (trimmed.isEmpty()) {
+                cells = finish(cells, shapes, where);
+                continue;
+            }
+            if (trimmed.startsWith("piece ") || trimmed.equals("piece")) {
+                cells = finish(cells, shapes, where);
+                String name = trimmed.substring(5).trim();
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException(where + "piece needs a name");
+                }
+                names.add(name);
+                colors.add(-1);
+                cells = new ArrayList<>();
+                row = 0;
+                continue;
+            }
+            if (cells == null) {
+                throw new IllegalArgumentException(where + "expected \"piece <name>\"");
+            }
+            if (trimmed.startsWith("color ")) {
+                try {
+                    colors.set(colors.size() - 1, Integer.parseInt(trimmed.substring(6).trim().replace("#", ""), 16));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException(where + "color must be RGB hex, e.g. 9467bd");
+                }
+                continue;
+            }
+
+            // Columns count from the start of the line, so an indented row would be a different shape
+            if (Character.isWhitespace(line.charAt(0))) {
+                throw new IllegalArgumentException(where + "shape rows must start in the first column");
+            }
+            for (int col = 0; col < trimmed.length(); col++) {
+                char c = trimmed.charAt(col);
+                if (c == 'X' || c == 'x') {
+                    cells.add(new int[] { row, col });
+                } else if (c != '.') {
+                    throw new IllegalArgumentException(where + "unexpected '" + c + "' (use X for cells, . for gaps)");
+                }
+            }
+            row++;
+        }
+        finish(cells, shapes, source + ":" + lineNumber + ": ");
+
+        int[] rgb = new int[colors.size()];
+        for (int i = 0; i < rgb.length; i++) {
+            rgb[i] = colors.get(i);
+        }
+        try {
+            return new PieceLibrary(names.toArray(new String[0]), shapes.toArray(new int[0][][]), rgb);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(source + ": " + e.getMessage());
+        }
+    }
+
+    public int size() {
+        return shapes.length;
+    }
+
+    public String name(int pieceType) {
+        return names[pieceType - 1];
+    }
+
+    // Cells of a piece type (1-based) as written in the library
+    public int[][] shape(int pieceType) {
+        return shapes[pieceType - 1];
+    }
+
+    // RGB color of a piece type, or -1 if the library leaves it to the GUI
+    public int color(int pieceType) {
+        return colors[pieceType - 1];
+    }
+
+    // 64-bit hash of the shapes, so answers cached for one library are not
+    // mistaken for another's
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    PieceCatalog catalog() {
+        return catalog;
+    }
+
+    // Placement table for board, built once per library and reused. Plain boards
+    // come in few sizes and are all kept; boards with blocked cells can vary
+    // endlessly, so only the BLOCKED_TABLES most recently used are.
+    PlacementTable placements(BoardShape board, boolean reflections) {
+        // The key lists the blocked cells, so each mask gets its own table
+        String key = board.key() + (reflections ? "r" : "");
+        if (!board.hasBlockedCells()) {
+            return placements.computeIfAbsent(key, k -> new PlacementTable(catalog, board, reflections));
+        }
+        synchronized (blockedPlacements) {
+            PlacementTable table = blockedPlacements.get(key);
+            if (table != null) {
+                return table;
+            }
+        }
+        // Built outside the lock so threads solving other boards are not held up
+        PlacementTable table = new PlacementTable(catalog, board, reflections);
+        synchronized (blockedPlacements) {
+            blockedPlacements.put(key, table);
+        }
+        return table;
+    }
+
+    @Override
+    public String toString() {
+        return size() + " pieces (" + fingerprint + ")";
+    }
+
+    private static List<int[]> finish(List<int[]> cells, List<int[][]> shapes, String where) {
+        if (cells != null) {
+            if (cells.isEmpty()) {
+                throw new IllegalArgumentException(where + "piece has no cells");
+            }
+            shapes.add(cells.toArray(new int[0][]));
+        }
+        return null;
+    }
+
+    private static void validate(String name, int[][] shape) {
+        if (shape.length == 0) {
+            throw new IllegalArgumentException("Piece " + name + " has no cells");
+        }
+        Set<Long> cells = new HashSet<>();
+        for (int[] point : shape) {
+            if (!cells.add(cellKey(point[0], point[1]))) {
+                throw new IllegalArgumentException("Piece " + name + " lists a cell twice");
+            }
+        }
+
+        // Flood fill from the first cell must reach all the others
+        Set<Long> reached = new HashSet<>();
+        List<int[]> stack = new ArrayList<>();
+        stack.add(shape[0]);
+        reached.add(cellKey(shape[0][0], shape[0][1]));
+        int[][] steps = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } };
+        while (!stack.isEmpty()) {
+            int[] point = stack.remove(stack.size() - 1);
+            for (int[] step : steps) {
+                long neighbor = cellKey(point[0] + step[0], point[1] + step[1]);
+                if (cells.contains(neighbor) && reached.add(neighbor)) {
+                    stack.add(new int[] { point[0] + step[0], point[1] + step[1] });
+                }
+            }
+        }
+        if (reached.size() != cells.size()) {
+            throw new IllegalArgumentException("Piece " + name + " is not connected");
+        }
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) ^ (col & 0xFFFFFFFFL);
+    }
+
+    // FNV-1a over the normalized orientation of each piece, in library order
+    private static String fingerprint(PieceCatalog catalog) {
+        long h = 0xcbf29ce484222325L;
+        for (int type = 1; type <= catalog.typeCount(); type++) {
+            for (int[] point : catalog.orientations(type, false)[0]) {
+                h = (h ^ point[0]) * 0x100000001b3L;
+                h = (h ^ point[1]) * 0x100000001b3L;
+            }
+            h = (h ^ 0xFF) * 0x100000001b3L;
+        }
+        return String.format("%016x", h);
+    }
+
+    private static int[] filled(int length, int value) {
+        int[] result = new int[length];
+        Arrays.fill(result, value);
+        return result;
+    }
+}
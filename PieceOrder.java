@@ -0,0 +1,53 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Order in which the piece-by-piece engines (BACKTRACK and BITBOARD) place the
+// pieces. The input order is the order they were selected in, so a selection that
+// starts with small pieces branches widely before the big ones are tried; placing
+// the pieces with the fewest choices first keeps the tree narrow near the root.
+// The cell-driven engines (ANCHOR, DLX) choose their own order and ignore this.
+//
+// Any implementation can be passed to SolverOptions.pieceOrder(...); the
+// built-in ones are the Standard constants, also reachable as PieceOrder.INPUT etc.
+public interface PieceOrder {
+    PieceOrder INPUT = Standard.INPUT;
+    PieceOrder LARGEST_FIRST = Standard.LARGEST_FIRST;
+    PieceOrder MOST_CONSTRAINED = Standard.MOST_CONSTRAINED;
+
+    // The pieces (piece types, 1-based) reordered for table's board: the same
+    // multiset in the order they should be placed. May return pieces itself.
+    int[] order(int[] pieces, PieceCatalog catalog, PlacementTable table);
+
+    enum Standard implements PieceOrder {
+        INPUT, // As given
+        LARGEST_FIRST, // Biggest area first
+        MOST_CONSTRAINED; // Fewest placements on this board first, then biggest area
+
+        // INPUT returns pieces itself; equal pieces keep their input order
+        @Override
+        public int[] order(int[] pieces, PieceCatalog catalog, PlacementTable table) {
+            if (this == INPUT) {
+                return pieces;
+            }
+
+            List<Integer> sorted = new ArrayList<>();
+            for (int pieceType : pieces) {
+                sorted.add(pieceType);
+            }
+            if (this == LARGEST_FIRST) {
+                sorted.sort((a, b) -> Integer.compare(catalog.area(b), catalog.area(a)));
+            } else {
+                sorted.sort((a, b) -> {
+                    int choices = Integer.compare(table.byType[a - 1].length, table.byType[b - 1].length);
+                    return choices != 0 ? choices : Integer.compare(catalog.area(b), catalog.area(a));
+                });
+            }
+
+            int[] result = new int[pieces.length];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = sorted.get(i);
+            }
+            return result;
+        }
+    }
+}
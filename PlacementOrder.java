@@ -0,0 +1,34 @@
+// Order in which the bitboard engine tries the placements of each piece. BOARD
+// keeps the table's own order; CONTACT tries first the placements whose cells
+// touch the most occupied (or blocked) cells and board edges, which packs pieces
+// against what is already there and tends to leave fewer unfillable gaps.
+//
+// Any implementation can be passed to SolverOptions.placementOrder(...): it
+// supplies a Scorer per board, and the engine tries the placements that fit in
+// order of falling score (board order among ties).
+public interface PlacementOrder {
+    PlacementOrder BOARD = Standard.BOARD;
+    PlacementOrder CONTACT = Standard.CONTACT;
+
+    // Scores the placements of table, or null to keep board order
+    Scorer scorer(PlacementTable table);
+
+    // Called from the searching thread on every node, so it should be cheap
+    interface Scorer {
+        // Highest score score() returns; scores run from 0 to this
+        int maxScore();
+
+        // Priority of placement p given the occupied cells; higher is tried first
+        int score(long[] occupied, int p);
+    }
+
+    enum Standard implements PlacementOrder {
+        BOARD, // Orientation by orientation, row-major over the board
+        CONTACT; // Most contact first
+
+        @Override
+        public Scorer scorer(PlacementTable table) {
+            return this == CONTACT ? table.contacts() : null;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Every legal placement of every piece type on a rows x cols board, precomputed
+// once as bit masks. Cell (row, col) is bit (row * cols + col); boards larger than
+// 8x8 simply use more than one long per mask. Placements covering a blocked cell
+// are left out, and solvers start from the blocked mask instead of an empty one.
+public class PlacementTable {
+    final int rows;
+    final int cols;
+    final int words;
+    final BoardShape shape;
+
+    // Cells pieces may cover, and the blocked cells as an occupancy mask
+    final int freeCells;
+    private final long[] blocked;
+
+    // Placement ids available for each piece type (index = pieceType - 1)
+    final int[][] byType;
+
+    // Placement ids whose first (row-major smallest) cell is the given cell, per
+    // piece type: byAnchor[cell][pieceType - 1]
+    final int[][][] byAnchor;
+
+    // Placement p occupies masks[p * words] .. masks[p * words + words - 1]
+    final long[] masks;
+
+    // Board cells covered by each placement, and the piece type it belongs to
+    final int[][] cells;
+    final int[] typeOf;
+
+    // Zobrist keys of each cell, and of each placement (XOR of its cells' keys)
+    final long[] cellKeys;
+    final long[] zobrist;
+
+    // Random key standing for this board and its placements (piece shapes,
+    // reflections); solvers mix it into their dead-state hashes so a cache shared
+    // between puzzles never mistakes one board's state for another's
+    final long identity;
+
+    // Neighbourhood data for PlacementOrder.CONTACT, built on first use
+    private volatile Contacts contacts;
+
+    public PlacementTable(PieceCatalog catalog, int rows, int cols, boolean reflections) {
+        this(catalog, new BoardShape(cols, rows), reflections);
+    }
+
+    public PlacementTable(PieceCatalog catalog, BoardShape shape, boolean reflections) {
+        this.shape = shape;
+        this.rows = shape.getHeight();
+        this.cols = shape.getWidth();
+        this.words = (rows * cols + 63) / 64;
+        this.freeCells = shape.getFreeCells();
+        this.blocked = new long[words];
+        for (int cell = 0; cell < rows * cols; cell++) {
+            if (shape.isBlocked(cell)) {
+                blocked[cell >>> 6] |= 1L << cell;
+            }
+        }
+
+        List<int[]> placementCells = new ArrayList<>();
+        List<Integer> placementTypes = new ArrayList<>();
+        byType = new int[catalog.typeCount()][];
+
+        for (int type = 1; type <= catalog.typeCount(); type++) {
+            List<Integer> ids = new ArrayList<>();
+            for (int[][] piece : catalog.orientations(type, reflections)) {
+                for (int row = 0; row < rows; row++) {
+                    for (int col = 0; col < cols; col++) {
+                        int[] covered = translate(piece, row, col);
+                        if (covered != null) {
+                            ids.add(placementCells.size());
+                            placementCells.add(covered);
+                            placementTypes.add(type);
+                        }
+                    }
+                }
+            }
+            byType[type - 1] = toArray(ids);
+        }
+
+        int count = placementCells.size();
+        masks = new long[count * words];
+        cells = placementCells.toArray(new int[count][]);
+        typeOf = toArray(placementTypes);
+        for (int p = 0; p < count; p++) {
+            for (int cell : cells[p]) {
+                masks[p * words + (cell >>> 6)] |= 1L << cell;
+            }
+        }
+
+        cellKeys = DeadStateCache.keys(rows * cols, 0x5EED);
+        zobrist = new long[count];
+        for (int p = 0; p < count; p++) {
+            for (int cell : cells[p]) {
+                zobrist[p] ^= cellKeys[cell];
+            }
+        }
+
+        long h = 0xcbf29ce484222325L;
+        h = (h ^ rows) * 0x100000001b3L;
+        h = (h ^ cols) * 0x100000001b3L;
+        for (long word : blocked) {
+            h = (h ^ word) * 0x100000001b3L;
+        }
+        for (int p = 0; p < count; p++) {
+            h = (h ^ typeOf[p]) * 0x100000001b3L;
+            for (int cell : cells[p]) {
+                h = (h ^ cell) * 0x100000001b3L;
+            }
+        }
+        identity = DeadStateCache.keys(1, h)[0];
+
+        // Orientation cells are sorted row-major, so cells[p][0] is the anchor. One
+        // pass counts each (anchor, type) bucket and a second fills them, keeping
+        // the byType order within each
+        int types = catalog.typeCount();
+        int[] sizes = new int[rows * cols * types];
+        for (int p = 0; p < count; p++) {
+            sizes[cells[p][0] * types + typeOf[p] - 1]++;
+        }
+        byAnchor = new int[rows * cols][types][];
+        for (int cell = 0; cell < rows * cols; cell++) {
+            for (int type = 0; type < types; type++) {
+                byAnchor[cell][type] = new int[sizes[cell * types + type]];
+                sizes[cell * types + type] = 0;
+            }
+        }
+        for (int type = 0; type < types; type++) {
+            for (int p : byType[type]) {
+                int cell = cells[p][0];
+                byAnchor[cell][type][sizes[cell * types + type]++] = p;
+            }
+        }
+    }
+
+    // Occupancy mask of a board with no pieces placed yet
+    final long[] emptyBoard() {
+        return blocked.clone();
+    }
+
+    // True if placement p does not overlap any occupied cell
+    final boolean fits(long[] occupied, int p) {
+        int base = p * words;
+        for (int w = 0; w < words; w++) {
+            if ((occupied[w] & masks[base + w]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Place or remove placement p (XOR is its own inverse)
+    final void toggle(long[] occupied, int p) {
+        int base = p * words;
+        for (int w = 0; w < words; w++) {
+            occupied[w] ^= masks[base + w];
+        }
+    }
+
+    // First cell at or after 'from' that is not set in occupied, or -1 if there is none
+    final int firstEmpty(long[] occupied, int from) {
+        int cellCount = rows * cols;
+        for (int w = from >>> 6; w < words; w++) {
+            long free = ~occupied[w];
+            if (w == from >>> 6) {
+                free &= -1L << from;
+            }
+            if (free != 0) {
+                int cell = (w << 6) + Long.numberOfTrailingZeros(free);
+                return cell < cellCount ? cell : -1;
+            }
+        }
+        return -1;
+    }
+
+    // Contact scores of this table's placements; built once and shared, like the table
+    Contacts contacts() {
+        Contacts result = contacts;
+        if (result == null) {
+            // Racing threads build equal copies, so either may win
+            result = new Contacts();
+            contacts = result;
+        }
+        return result;
+    }
+
+    // How much of what is already on the board each placement would touch
+    final class Contacts implements PlacementOrder.Scorer {
+        // Cells bordering placement p (outside it), laid out like masks
+        private final long[] halos;
+        // Sides of placement p's cells that lie on the board's outer edge
+        private final int[] edges;
+        private final int maxScore;
+
+        private Contacts() {
+            halos = new long[masks.length];
+            edges = new int[cells.length];
+            int max = 0;
+            for (int p = 0; p < cells.length; p++) {
+                int base = p * words;
+                for (int cell : cells[p]) {
+                    int row = cell / cols, col = cell % cols;
+                    edges[p] += (row == 0 ? 1 : 0) + (row == rows - 1 ? 1 : 0) + (col == 0 ? 1 : 0)
+                            + (col == cols - 1 ? 1 : 0);
+                    if (row > 0) {
+                        halos[base + ((cell - cols) >>> 6)] |= 1L << (cell - cols);
+                    }
+                    if (row < rows - 1) {
+                        halos[base + ((cell + cols) >>> 6)] |= 1L << (cell + cols);
+                    }
+                    if (col > 0) {
+                        halos[base + ((cell - 1) >>> 6)] |= 1L << (cell - 1);
+                    }
+                    if (col < cols - 1) {
+                        halos[base + ((cell + 1) >>> 6)] |= 1L << (cell + 1);
+                    }
+                }
+                int haloSize = 0;
+                for (int w = 0; w < words; w++) {
+                    halos[base + w] &= ~masks[base + w];
+                    haloSize += Long.bitCount(halos[base + w]);
+                }
+                max = Math.max(max, edges[p] + haloSize);
+            }
+            maxScore = max;
+        }
+
+        // Highest score any placement can reach
+        @Override
+        public int maxScore() {
+            return maxScore;
+        }
+
+        // Occupied cells bordering placement p plus its sides on the board edge
+        @Override
+        public int score(long[] occupied, int p) {
+            int base = p * words;
+            int score = edges[p];
+            for (int w = 0; w < words; w++) {
+                score += Long.bitCount(occupied[w] & halos[base + w]);
+            }
+            return score;
+        }
+    }
+
+    // Render the chosen placements into the int[][] board format used by the GUI
+    int[][] toBoard(int[] placements, int count) {
+        int[][] board = shape.newBoard();
+        for (int i = 0; i < count; i++) {
+            int p = placements[i];
+            for (int cell : cells[p]) {
+                board[cell / cols][cell % cols] = typeOf[p];
+            }
+        }
+        return board;
+    }
+
+    // Cells covered by the piece anchored at (row, col), or null if it leaves the
+    // board or covers a blocked cell
+    private int[] translate(int[][] piece, int row, int col) {
+        int[] covered = new int[piece.length];
+        for (int i = 0; i < piece.length; i++) {
+            int newRow = row + piece[i][0];
+            int newCol = col + piece[i][1];
+            if (newRow < 0 || newRow >= rows || newCol < 0 || newCol >= cols) {
+                return null;
+            }
+            covered[i] = newRow * cols + newCol;
+            if (shape.isBlocked(covered[i])) {
+                return null;
+            }
+        }
+        return covered;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+}
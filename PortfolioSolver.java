@@ -0,0 +1,152 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Races several strategies on their own threads: member 0 is the exact anchor
+// search, member 1 the local search, and the rest are bitboard searches
+// restarted with randomized piece orders. The members run in rounds together:
+// every round each starts over on a node budget that doubles from round to
+// round. The winner is the lowest-numbered member that finishes in the earliest
+// round; a member that finishes halts the members numbered above it, while those
+// below it complete the round. Every member is deterministic for its seed and
+// round, so the same seed always gives the same packing.
+//
+// A complete search (exact, or a restart that ran out of placements rather than
+// nodes) that finds nothing proves there is no packing.
+public class PortfolioSolver {
+    // Node budget of each member in its first round
+    static final long FIRST_ROUND_NODES = 20_000;
+
+    private final PlacementTable table;
+    private final PieceCatalog catalog;
+    private final int[] pieces;
+    private final boolean pruneRegions;
+    private final long seed;
+    private final int members;
+    private SearchStats stats;
+
+    // Runs max(3, options.getParallelism()) members seeded from options.getSeed()
+    public PortfolioSolver(PlacementTable table, PieceCatalog catalog, int[] pieces, SolverOptions options) {
+        this.table = table;
+        this.catalog = catalog;
+        this.pieces = pieces;
+        this.pruneRegions = options.isRegionPruning();
+        this.seed = options.getSeed();
+        this.members = Math.max(3, options.getParallelism());
+    }
+
+    // Collect search statistics into stats (null to disable)
+    public void setStats(SearchStats stats) {
+        this.stats = stats;
+    }
+
+    // Returns the winning packing, or null if there is none or the control stopped the search
+    public int[][] solve(SearchControl control) {
+        ExecutorService pool = Executors.newFixedThreadPool(members);
+        try {
+            SearchStats[] memberStats = new SearchStats[members];
+            for (int member = 0; member < members; member++) {
+                memberStats[member] = stats != null ? new SearchStats(stats.getEngine(), pieces.length) : null;
+            }
+            int[][][] boards = new int[members][][];
+            int winner = -1;
+            for (int round = 0; winner < 0 && !control.isStopped(); round++) {
+                winner = round(pool, round, control, boards, memberStats);
+            }
+            if (stats != null) {
+                for (SearchStats s : memberStats) {
+                    stats.merge(s);
+                }
+            }
+            return winner >= 0 ? boards[winner] : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            control.cancel();
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    // Runs every member for one round and returns the lowest-numbered one that
+    // finished, or -1 if none did. A member that finishes halts only the members
+    // numbered above it; those below it still run the whole round and win if they
+    // finish too, so the winner never depends on thread timing.
+    private int round(ExecutorService pool, int round, SearchControl control, int[][][] boards,
+            SearchStats[] memberStats) throws InterruptedException, ExecutionException {
+        CompletionService<Integer> done = new ExecutorCompletionService<>(pool);
+        SearchControl[] budgets = new SearchControl[members];
+        boolean[] finished = new boolean[members];
+        for (int i = 0; i < members; i++) {
+            int member = i;
+            budgets[member] = control.child(FIRST_ROUND_NODES << Math.min(round, 40));
+            done.submit(() -> {
+                boards[member] = run(member, round, budgets[member], memberStats[member]);
+                return member;
+            });
+        }
+
+        for (int i = 0; i < members; i++) {
+            int member = done.take().get();
+            if (!budgets[member].isStopped()) {
+                finished[member] = true;
+                for (int later = member + 1; later < members; later++) {
+                    budgets[later].halt();
+                }
+            }
+        }
+        for (int member = 0; member < members; member++) {
+            if (finished[member]) {
+                return member;
+            }
+        }
+        return -1;
+    }
+
+    // One member's search for one round; null if it found no packing
+    private int[][] run(int member, int round, SearchControl control, SearchStats memberStats) {
+        if (member == 0) {
+            AnchorSolver exact = new AnchorSolver(table, catalog, pieces, pruneRegions);
+            exact.setControl(control);
+            exact.setStats(memberStats);
+            return exact.solve();
+        }
+
+        Random random = new Random(seed ^ member * 0x9E3779B97F4A7C15L ^ round * 0xC2B2AE3D27D4EB4FL);
+        if (member == 1) {
+            LocalSearchSolver local = new LocalSearchSolver(table, catalog, pieces, pruneRegions, random.nextLong());
+            local.setStats(memberStats);
+            return local.solve(control);
+        }
+
+        // A random piece order, biggest pieces first in half of the restarts
+        List<Integer> order = new ArrayList<>();
+        for (int pieceType : pieces) {
+            order.add(pieceType);
+        }
+        Collections.shuffle(order, random);
+        if (random.nextBoolean()) {
+            order.sort((a, b) -> Integer.compare(catalog.area(b), catalog.area(a)));
+        }
+        int[] shuffled = new int[order.size()];
+        for (int i = 0; i < shuffled.length; i++) {
+            shuffled[i] = order.get(i);
+        }
+
+        BitboardSolver restart = new BitboardSolver(table, catalog, shuffled, pruneRegions);
+        restart.setControl(control);
+        restart.setPlacementOrder(PlacementOrder.CONTACT);
+        restart.setStats(memberStats);
+        return restart.solve();
+    }
+}
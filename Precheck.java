@@ -0,0 +1,121 @@
+// Cheap necessary conditions checked before any search starts. Each rule can
+// only reject puzzles that have no packing; passing all of them proves nothing.
+public class Precheck {
+
+    public enum Rule {
+        AREA_EXCEEDS_BOARD("The pieces cover more cells than the board has"),
+        PIECE_DOES_NOT_FIT("A piece does not fit on the board in any orientation"),
+        CHECKERBOARD_COLORING("The pieces cannot match the board's checkerboard coloring");
+
+        private final String description;
+
+        Rule(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    // Returns the first rule that proves the puzzle unsolvable, or null if none applies
+    public static Rule check(PieceCatalog catalog, int[] pieces, int rows, int cols, boolean reflections) {
+        return check(catalog, pieces, new BoardShape(cols, rows), reflections);
+    }
+
+    public static Rule check(PieceCatalog catalog, int[] pieces, BoardShape board, boolean reflections) {
+        int rows = board.getHeight(), cols = board.getWidth();
+        int area = 0;
+        for (int pieceType : pieces) {
+            area += catalog.area(pieceType);
+        }
+        if (area > board.getFreeCells()) {
+            return Rule.AREA_EXCEEDS_BOARD;
+        }
+
+        for (int pieceType : pieces) {
+            if (!fits(catalog.orientations(pieceType, reflections), rows, cols)) {
+                return Rule.PIECE_DOES_NOT_FIT;
+            }
+        }
+
+        if (!coloringPossible(catalog, pieces, area, board)) {
+            return Rule.CHECKERBOARD_COLORING;
+        }
+
+        return null;
+    }
+
+    private static boolean fits(int[][][] orientations, int rows, int cols) {
+        for (int[][] shape : orientations) {
+            int height = 0, width = 0;
+            for (int[] point : shape) {
+                height = Math.max(height, point[0] + 1);
+                width = Math.max(width, point[1] + 1);
+            }
+            if (height <= rows && width <= cols) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Color the board like a checkerboard. Wherever a piece goes, it covers
+    // (area + d) / 2 cells of one color and (area - d) / 2 of the other, where d is
+    // its fixed color imbalance and only the sign depends on the placement. The
+    // signed imbalances must add up to something the board's two colors can hold.
+    private static boolean coloringPossible(PieceCatalog catalog, int[] pieces, int area, BoardShape board) {
+        int black = 0, white = 0;
+        for (int row = 0; row < board.getHeight(); row++) {
+            for (int col = 0; col < board.getWidth(); col++) {
+                if (!board.isBlocked(row, col)) {
+                    if ((row + col) % 2 == 0) {
+                        black++;
+                    } else {
+                        white++;
+                    }
+                }
+            }
+        }
+
+        int total = 0;
+        int[] imbalance = new int[pieces.length];
+        for (int i = 0; i < pieces.length; i++) {
+            int d = 0;
+            for (int[] point : catalog.shape(pieces[i])) {
+                d += (point[0] + point[1]) % 2 == 0 ? 1 : -1;
+            }
+            imbalance[i] = Math.abs(d);
+            total += imbalance[i];
+        }
+
+        // reachable[s + total] is true when the signed imbalances can sum to s
+        boolean[] reachable = new boolean[2 * total + 1];
+        reachable[total] = true;
+        for (int d : imbalance) {
+            if (d == 0) {
+                continue;
+            }
+            boolean[] next = new boolean[reachable.length];
+            for (int s = 0; s < reachable.length; s++) {
+                if (reachable[s]) {
+                    if (s + d < next.length) {
+                        next[s + d] = true;
+                    }
+                    if (s - d >= 0) {
+                        next[s - d] = true;
+                    }
+                }
+            }
+            reachable = next;
+        }
+
+        for (int s = 0; s < reachable.length; s++) {
+            int signed = s - total;
+            if (reachable[s] && (area + signed) / 2 <= black && (area - signed) / 2 <= white) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,82 @@
+// Flood-fills the empty regions of a bitboard and checks that the cells no
+// remaining piece can use fit within the spare area. A region smaller than the
+// smallest remaining piece is entirely wasted, and when every remaining area is a
+// multiple of g, (region size mod g) of its cells are wasted too. All buffers are
+// preallocated, so a check allocates nothing.
+public class RegionPruner {
+    private final PlacementTable table;
+    private final long[] seen;
+    private final int[] stack;
+
+    public RegionPruner(PlacementTable table) {
+        this.table = table;
+        this.seen = new long[table.words];
+        this.stack = new int[table.rows * table.cols];
+    }
+
+    // False if the empty cells of occupied waste more than slack cells
+    public boolean viable(long[] occupied, int slack, int minArea, int areaGcd) {
+        return wasted(occupied, minArea, areaGcd, slack) <= slack;
+    }
+
+    // Empty cells no remaining piece can use; counting stops once it passes limit
+    public int wasted(long[] occupied, int minArea, int areaGcd, int limit) {
+        if (minArea <= 1 && areaGcd <= 1) {
+            return 0;
+        }
+
+        System.arraycopy(occupied, 0, seen, 0, seen.length);
+        int rows = table.rows, cols = table.cols;
+        int wasted = 0;
+
+        for (int start = table.firstEmpty(seen, 0); start >= 0; start = table.firstEmpty(seen, start + 1)) {
+            int size = 0;
+            int top = 0;
+            stack[top++] = start;
+            seen[start >>> 6] |= 1L << start;
+
+            while (top > 0) {
+                int cell = stack[--top];
+                size++;
+                int row = cell / cols, col = cell % cols;
+                if (row > 0) {
+                    top = visit(cell - cols, top);
+                }
+                if (row < rows - 1) {
+                    top = visit(cell + cols, top);
+                }
+                if (col > 0) {
+                    top = visit(cell - 1, top);
+                }
+                if (col < cols - 1) {
+                    top = visit(cell + 1, top);
+                }
+            }
+
+            wasted += size < minArea ? size : size % areaGcd;
+            if (wasted > limit) {
+                return wasted;
+            }
+        }
+
+        return wasted;
+    }
+
+    private int visit(int cell, int top) {
+        long bit = 1L << cell;
+        if ((seen[cell >>> 6] & bit) == 0) {
+            seen[cell >>> 6] |= bit;
+            stack[top++] = cell;
+        }
+        return top;
+    }
+
+    static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,166 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+// Handle for a running search: cooperative cancellation, a wall-clock timeout and
+// a node budget. Solvers report progress every CHECK_INTERVAL nodes rather than
+// on every node, so polling it costs next to nothing; the node budget is
+// therefore enforced to within CHECK_INTERVAL nodes per worker thread.
+//
+// A progress listener gets a copy of the board being searched at most once per
+// interval. Solvers only ask whether a snapshot is due at their checkpoints, so
+// the sampling costs the search nothing between checkpoints.
+//
+// A child control bounds one part of a search by its own node budget: it stops
+// when its parent does, and its nodes and snapshots go to the parent as well.
+public class SearchControl {
+    public static final int CHECK_INTERVAL = 1024;
+
+    // Why a search was stopped before it finished
+    public enum Stop {
+        CANCELLED, TIMED_OUT, NODE_LIMIT
+    }
+
+    // Receives sampled snapshots of a running search, on a searching thread
+    public interface ProgressListener {
+        // board is a fresh copy holding the pieces placed so far; nodes is the
+        // total visited by all workers as of the last checkpoint
+        void onProgress(int[][] board, long nodes);
+    }
+
+    private final SearchControl parent;
+    private final AtomicLong nodes = new AtomicLong();
+    private long timeoutMillis;
+    private long nodeLimit = Long.MAX_VALUE;
+    private long deadline = Long.MAX_VALUE;
+    private volatile Stop stop;
+    private volatile boolean halted;
+    private ProgressListener progress;
+    private long progressIntervalNanos;
+    private final AtomicLong nextSnapshot = new AtomicLong(Long.MAX_VALUE);
+
+    public SearchControl() {
+        this(null);
+    }
+
+    private SearchControl(SearchControl parent) {
+        this.parent = parent;
+    }
+
+    // A control for part of this search that also stops after visiting nodeLimit
+    // nodes of its own; it needs no start()
+    SearchControl child(long nodeLimit) {
+        SearchControl child = new SearchControl(this);
+        child.nodeLimit = nodeLimit;
+        return child;
+    }
+
+    // Give up after this many milliseconds (0 = no timeout), measured from start()
+    public SearchControl timeout(long millis) {
+        this.timeoutMillis = millis;
+        return this;
+    }
+
+    // Give up after visiting roughly this many search nodes
+    public SearchControl nodeLimit(long limit) {
+        this.nodeLimit = limit;
+        return this;
+    }
+
+    // Send a snapshot of the search to listener at most every intervalMillis
+    public SearchControl progress(ProgressListener listener, long intervalMillis) {
+        this.progress = listener;
+        this.progressIntervalNanos = intervalMillis * 1_000_000L;
+        return this;
+    }
+
+    // Start the timeout and progress clocks and the node count; called when the
+    // solve begins. A control reused for another solve gets a fresh node budget
+    // and timeout; only a cancel() stays in force.
+    public void start() {
+        nodes.set(0);
+        halted = false;
+        synchronized (this) {
+            if (stop != Stop.CANCELLED) {
+                stop = null;
+            }
+        }
+        long now = System.nanoTime();
+        if (timeoutMillis > 0) {
+            deadline = now + timeoutMillis * 1_000_000L;
+        }
+        if (progress != null) {
+            nextSnapshot.set(now + progressIntervalNanos);
+        }
+    }
+
+    public void cancel() {
+        stop(Stop.CANCELLED);
+    }
+
+    // Stop all workers without a failure reason, e.g. because one of them found a packing
+    void halt() {
+        halted = true;
+    }
+
+    public boolean isStopped() {
+        return halted || stop != null || (parent != null && parent.isStopped());
+    }
+
+    // The reason the search was stopped, or null if it was not
+    public Stop getStop() {
+        return stop != null || parent == null ? stop : parent.getStop();
+    }
+
+    public long getNodes() {
+        return nodes.get();
+    }
+
+    // Record nodes visited since the last checkpoint when a solver finishes
+    void addNodes(int visited) {
+        nodes.addAndGet(visited);
+        if (parent != null) {
+            parent.addNodes(visited);
+        }
+    }
+
+    // Record visited nodes and return true if the search should stop
+    boolean checkpoint(int visited) {
+        if (isStopped()) {
+            return true;
+        }
+        if (parent != null && parent.checkpoint(visited)) {
+            return true;
+        }
+        if (nodes.addAndGet(visited) >= nodeLimit) {
+            stop(Stop.NODE_LIMIT);
+        } else if (System.nanoTime() >= deadline) {
+            stop(Stop.TIMED_OUT);
+        }
+        return isStopped();
+    }
+
+    // True when a progress snapshot is due; with several workers only one of
+    // them is told per interval
+    boolean snapshotDue() {
+        if (progress == null) {
+            return parent != null && parent.snapshotDue();
+        }
+        long due = nextSnapshot.get();
+        long now = System.nanoTime();
+        return now >= due && nextSnapshot.compareAndSet(due, now + progressIntervalNanos);
+    }
+
+    // Hand a board copy taken after snapshotDue() returned true to the listener
+    void snapshot(int[][] board) {
+        if (progress == null) {
+            parent.snapshot(board);
+        } else {
+            progress.onProgress(board, nodes.get());
+        }
+    }
+
+    private synchronized void stop(Stop reason) {
+        if (stop == null) {
+            stop = reason;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Counters collected by a solver when SolverOptions.collectStats is on. Solvers
+// hold a null reference when it is off, so the hot loop pays only a null check.
+// Parallel workers each fill their own instance, which is merged at the end.
+public class SearchStats implements SearchStatsMXBean {
+
+    // Why a branch was cut before it was searched
+    public enum Prune {
+        REGION, // an empty region no remaining piece can fill (RegionPruner)
+        DEAD_STATE, // a state already proven dead (DeadStateCache)
+        EMPTY_COLUMN, // a cell no remaining placement can cover (DlxSolver)
+        BOUND // a branch that cannot beat the best packing so far (PackingOptimizer)
+    }
+
+    private final String engine;
+    long nodes;
+    long tried;
+    long rejected;
+    final long[] backtracks;
+    final long[] prunes = new long[Prune.values().length];
+    long elapsedNanos;
+
+    public SearchStats(String engine, int maxDepth) {
+        this.engine = engine;
+        this.backtracks = new long[maxDepth + 1];
+    }
+
+    void prune(Prune reason) {
+        prunes[reason.ordinal()]++;
+    }
+
+    synchronized void merge(SearchStats other) {
+        nodes += other.nodes;
+        tried += other.tried;
+        rejected += other.rejected;
+        for (int depth = 0; depth < backtracks.length && depth < other.backtracks.length; depth++) {
+            backtracks[depth] += other.backtracks[depth];
+        }
+        for (int i = 0; i < prunes.length; i++) {
+            prunes[i] += other.prunes[i];
+        }
+    }
+
+    @Override
+    public String getEngine() {
+        return engine;
+    }
+
+    // Search nodes visited (calls of the recursive search)
+    @Override
+    public long getNodes() {
+        return nodes;
+    }
+
+    // Placements tested against the board, and how many of those overlapped
+    @Override
+    public long getPlacementsTried() {
+        return tried;
+    }
+
+    @Override
+    public long getPlacementsRejected() {
+        return rejected;
+    }
+
+    // Pieces removed again after their subtree failed, by the depth they were placed at
+    @Override
+    public long[] getBacktracksPerDepth() {
+        return backtracks.clone();
+    }
+
+    @Override
+    public long getBacktracks() {
+        long total = 0;
+        for (long count : backtracks) {
+            total += count;
+        }
+        return total;
+    }
+
+    public long getPrunes(Prune reason) {
+        return prunes[reason.ordinal()];
+    }
+
+    @Override
+    public long getPruneHits() {
+        long total = 0;
+        for (long count : prunes) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    @Override
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+
+    // One-line summary for status displays
+    public String summary() {
+        return String.format("%,d nodes in %,d ms (%,.0f nodes/s), %,d backtracks, %,d prunes",
+                nodes, getElapsedMillis(), getNodesPerSecond(), getBacktracks(), getPruneHits());
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"engine\":\"").append(engine).append('"');
+        sb.append(",\"nodes\":").append(nodes);
+        sb.append(",\"placementsTried\":").append(tried);
+        sb.append(",\"placementsRejected\":").append(rejected);
+        sb.append(",\"elapsedMillis\":").append(getElapsedMillis());
+        sb.append(",\"nodesPerSecond\":").append(Math.round(getNodesPerSecond()));
+        sb.append(",\"prunes\":{");
+        for (Prune reason : Prune.values()) {
+            if (reason.ordinal() > 0) {
+                sb.append(',');
+            }
+            sb.append('"').append(reason).append("\":").append(prunes[reason.ordinal()]);
+        }
+        sb.append("},\"backtracksPerDepth\":[");
+        for (int depth = 0; depth < backtracks.length; depth++) {
+            if (depth > 0) {
+                sb.append(',');
+            }
+            sb.append(backtracks[depth]);
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    // Publish these statistics over JMX as PackingPuzzle:type=SearchStats,
+    // replacing the previously published solve
+    public void registerMBean() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("PackingPuzzle:type=SearchStats");
+        synchronized (SearchStats.class) {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return summary();
+    }
+}
@@ -0,0 +1,20 @@
+// JMX view of the statistics of the most recently published solve
+public interface SearchStatsMXBean {
+    String getEngine();
+
+    long getNodes();
+
+    long getPlacementsTried();
+
+    long getPlacementsRejected();
+
+    long[] getBacktracksPerDepth();
+
+    long getBacktracks();
+
+    long getPruneHits();
+
+    long getElapsedMillis();
+
+    double getNodesPerSecond();
+}
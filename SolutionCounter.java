@@ -0,0 +1,99 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts every packing without building boards. The first levels of the anchor
+// search are expanded into independent subtrees that are counted on a
+// ForkJoinPool, and progress is reported as each subtree finishes.
+public class SolutionCounter {
+    // How many levels of the search tree are split into separate subtrees
+    private static final int SPLIT_DEPTH = 3;
+
+    // Receives the running total after each subtree is counted
+    public interface Progress {
+        void update(long solutions, int finishedSubtrees, int totalSubtrees);
+    }
+
+    private final AnchorSolver root;
+    private final PlacementTable table;
+    private final boolean distinct;
+    private final boolean reflections;
+    private final int parallelism;
+
+    public SolutionCounter(AnchorSolver root, PlacementTable table, SolverOptions options) {
+        this.root = root;
+        this.table = table;
+        this.distinct = options.isDistinctUnderSymmetry();
+        this.reflections = options.isReflections();
+        this.parallelism = options.getParallelism();
+    }
+
+    // Total number of packings (or of symmetry classes), null progress for none
+    public long count(SearchControl control, Progress progress) {
+        root.setControl(control);
+
+        // Expand breadth-first; packings completed early stay in the frontier as leaves
+        List<AnchorSolver> frontier = new ArrayList<>();
+        frontier.add(root);
+        for (int depth = 0; depth < SPLIT_DEPTH; depth++) {
+            List<AnchorSolver> next = new ArrayList<>();
+            for (AnchorSolver solver : frontier) {
+                if (solver.isComplete()) {
+                    next.add(solver);
+                } else {
+                    next.addAll(solver.expand());
+                }
+            }
+            frontier = next;
+        }
+
+        int total = frontier.size();
+        LongAdder solutions = new LongAdder();
+        AtomicInteger finished = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (AnchorSolver subtree : frontier) {
+            tasks.add(() -> {
+                SymmetryFilter symmetry = distinct ? new SymmetryFilter(table, reflections) : null;
+                solutions.add(subtree.enumerate(null, symmetry));
+                mergeStats(subtree);
+                int done = finished.incrementAndGet();
+                if (progress != null) {
+                    progress.update(solutions.sum(), done, total);
+                }
+                return null;
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            // A subtree that failed would leave the count short, so its exception is rethrown
+            for (Future<Void> task : pool.invokeAll(tasks)) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            control.cancel();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return solutions.sum();
+    }
+
+    // Fold a subtree's statistics into the root's, if they are being collected
+    private void mergeStats(AnchorSolver subtree) {
+        SearchStats stats = root.getStats();
+        if (stats != null && subtree.getStats() != stats) {
+            stats.merge(subtree.getStats());
+        }
+    }
+}
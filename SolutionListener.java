@@ -0,0 +1,5 @@
+// Receives packings one at a time as the search finds them
+public interface SolutionListener {
+    // Return false to stop the enumeration
+    boolean onSolution(int[][] board);
+}
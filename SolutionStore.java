@@ -0,0 +1,412 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Persistent store of solved puzzles, so a repeated puzzle is answered without
+// searching, even after a restart. Puzzles are keyed by a canonical form (piece
+// library fingerprint, board shape, reflection setting and the sorted piece
+// multiset), so the order pieces were selected in does not matter. Both packings
+// and "no solution" verdicts are kept; stopped searches prove nothing and are
+// never stored.
+//
+// The file is an append-only log with one record per line:
+//   key <TAB> S <TAB> rows <TAB> cols <TAB> comma-separated cells
+//   key <TAB> N
+// Records are found through a hash table kept on disk next to the log (the same
+// name plus ".idx"): a header, then slots of (64-bit key hash, log offset) with
+// linear probing. Lookups read slots and records from disk, so memory use does
+// not grow with the number of puzzles stored; the key itself is checked on read.
+// The index is only a cache of the log: it is brought up to date with records
+// appended since it was last written, and rebuilt if it is missing or damaged.
+// Recently used answers are kept in a bounded LRU map in front of both files.
+public class SolutionStore implements Closeable {
+    // Index header (capacity, used slots, log bytes indexed) and slot sizes in bytes
+    private static final int HEADER = 24;
+    private static final int SLOT = 16;
+
+    // Slots in a new index; it doubles whenever it becomes half full
+    private static final long FIRST_CAPACITY = 1024;
+
+    // A stored answer: a packing, or null board for a proven "no solution"
+    public static final class Entry {
+        private final int[][] board;
+
+        Entry(int[][] board) {
+            this.board = board;
+        }
+
+        public boolean isSolved() {
+            return board != null;
+        }
+
+        // A fresh copy, so callers may modify it
+        public int[][] getBoard() {
+            return copy(board);
+        }
+    }
+
+    private final File file;
+    private final File indexFile;
+    private final RandomAccessFile log;
+    private RandomAccessFile index;
+    private long capacity;
+    private long count;
+    private final ByteBuffer slot = ByteBuffer.allocate(SLOT);
+    private final LinkedHashMap<String, Entry> recent;
+
+    private long hits;
+    private long misses;
+
+    // Open (or create) the store at file, keeping up to memoryEntries answers in memory
+    public SolutionStore(File file, int memoryEntries) throws IOException {
+        if (memoryEntries < 1) {
+            throw new IllegalArgumentException("memoryEntries must be at least 1");
+        }
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory " + parent);
+        }
+        this.file = file;
+        this.indexFile = new File(file.getPath() + ".idx");
+        this.log = new RandomAccessFile(file, "rw");
+        this.recent = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > memoryEntries;
+            }
+        };
+        try {
+            openIndex();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    // Canonical key of a puzzle: identical for any ordering of the same pieces
+    public static String key(PieceLibrary library, int[] pieces, BoardShape board, boolean reflections) {
+        int[] sorted = pieces.clone();
+        Arrays.sort(sorted);
+        StringBuilder sb = new StringBuilder(library.fingerprint()).append('/').append(board.key());
+        if (reflections) {
+            sb.append('r');
+        }
+        sb.append(':');
+        for (int i = 0; i < sorted.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(sorted[i]);
+        }
+        return sb.toString();
+    }
+
+    // The stored answer for key, or null if this puzzle has not been solved before
+    public synchronized Entry get(String key) throws IOException {
+        Entry entry = recent.get(key);
+        if (entry == null) {
+            entry = find(key);
+            if (entry != null) {
+                recent.put(key, entry);
+            }
+        }
+        if (entry == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return entry;
+    }
+
+    // Record the packing for key, or a "no solution" verdict when board is null
+    public synchronized void put(String key, int[][] board) throws IOException {
+        if (recent.containsKey(key) || find(key) != null) {
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder(key).append('\t');
+        if (board == null) {
+            sb.append('N');
+        } else {
+            sb.append("S\t").append(board.length).append('\t').append(board[0].length).append('\t');
+            for (int row = 0; row < board.length; row++) {
+                for (int col = 0; col < board[row].length; col++) {
+                    if (row > 0 || col > 0) {
+                        sb.append(',');
+                    }
+                    sb.append(board[row][col]);
+                }
+            }
+        }
+        sb.append('\n');
+
+        // Log first: a crash before the index is written only leaves the record to be indexed on the next open
+        long offset = log.length();
+        log.seek(offset);
+        log.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+        insert(hash(key), offset);
+        writeHeader(log.length());
+        recent.put(key, new Entry(copy(board)));
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    // Number of puzzles in the file
+    public synchronized int size() {
+        return (int) count;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            log.close();
+        } finally {
+            if (index != null) {
+                index.close();
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s: %,d puzzles, %,d hits, %,d misses", file, count, hits, misses);
+    }
+
+    // Open the index, rebuilding it if it does not fit the log, and index the records appended since
+    private void openIndex() throws IOException {
+        index = new RandomAccessFile(indexFile, "rw");
+        long indexed = -1;
+        if (index.length() >= HEADER) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            index.seek(0);
+            index.readFully(header.array());
+            capacity = header.getLong();
+            count = header.getLong();
+            indexed = header.getLong();
+        }
+        if (indexed < 0 || indexed > log.length() || capacity < FIRST_CAPACITY || Long.bitCount(capacity) != 1
+                || count < 0 || count * 2 > capacity || index.length() != HEADER + capacity * SLOT) {
+            index.close();
+            index = create(indexFile, FIRST_CAPACITY);
+            capacity = FIRST_CAPACITY;
+            count = 0;
+            indexed = 0;
+        }
+        scan(indexed);
+    }
+
+    // Index the log's records from offset on. Only a record cut short by a crash
+    // (a last line with no newline) is dropped from the file; a damaged complete
+    // line is skipped so the records after it stay readable.
+    private void scan(long offset) throws IOException {
+        try (FileInputStream stream = new FileInputStream(file)) {
+            stream.getChannel().position(offset);
+            InputStream in = new BufferedInputStream(stream, 1 << 16);
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                String[] record = line.toString("UTF-8").split("\t");
+                if (parse(record) != null && find(record[0]) == null) {
+                    insert(hash(record[0]), offset);
+                }
+                offset += line.size() + 1;
+                line.reset();
+            }
+        }
+        if (offset < log.length()) {
+            log.setLength(offset);
+        }
+        writeHeader(offset);
+    }
+
+    // The answer an undamaged record stores for key, or null
+    private Entry find(String key) throws IOException {
+        long h = nonZero(hash(key));
+        for (long i = h & (capacity - 1);; i = (i + 1) & (capacity - 1)) {
+            readSlot(index, i);
+            long slotHash = slot.getLong();
+            if (slotHash == 0) {
+                return null;
+            }
+            if (slotHash == h) {
+                String[] record = readRecord(slot.getLong()).split("\t");
+                Entry entry = record[0].equals(key) ? parse(record) : null;
+                if (entry != null) {
+                    return entry;
+                }
+            }
+        }
+    }
+
+    // Add a slot for the record at offset, growing the table first if it would pass half full
+    private void insert(long hash, long offset) throws IOException {
+        if ((count + 1) * 2 > capacity) {
+            grow();
+        }
+        writeSlot(index, capacity, nonZero(hash), offset);
+        count++;
+    }
+
+    // Write a slot into the first free place of its probe sequence
+    private void writeSlot(RandomAccessFile table, long size, long hash, long offset) throws IOException {
+        long i = hash & (size - 1);
+        while (true) {
+            readSlot(table, i);
+            if (slot.getLong() == 0) {
+                break;
+            }
+            i = (i + 1) & (size - 1);
+        }
+        slot.clear();
+        slot.putLong(hash).putLong(offset);
+        table.seek(HEADER + i * SLOT);
+        table.write(slot.array());
+    }
+
+    // Rehash every slot into a table twice the size, written beside the index and then moved over it
+    private void grow() throws IOException {
+        long size = capacity * 2;
+        File grown = new File(indexFile.getPath() + ".tmp");
+        try (RandomAccessFile table = create(grown, size)) {
+            byte[] block = new byte[SLOT * 4096];
+            for (long first = 0; first < capacity; first += 4096) {
+                int slots = (int) Math.min(4096, capacity - first);
+                index.seek(HEADER + first * SLOT);
+                index.readFully(block, 0, slots * SLOT);
+                ByteBuffer slotsRead = ByteBuffer.wrap(block);
+                for (int i = 0; i < slots; i++) {
+                    long hash = slotsRead.getLong();
+                    long offset = slotsRead.getLong();
+                    if (hash != 0) {
+                        writeSlot(table, size, hash, offset);
+                    }
+                }
+            }
+        }
+        index.close();
+        Files.move(grown.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        index = new RandomAccessFile(indexFile, "rw");
+        capacity = size;
+    }
+
+    // A new, empty index file with size slots
+    private static RandomAccessFile create(File file, long size) throws IOException {
+        RandomAccessFile table = new RandomAccessFile(file, "rw");
+        table.setLength(0);
+        byte[] zeros = new byte[1 << 16];
+        for (long left = HEADER + size * SLOT; left > 0; left -= zeros.length) {
+            table.write(zeros, 0, (int) Math.min(left, zeros.length));
+        }
+        return table;
+    }
+
+    private void readSlot(RandomAccessFile table, long i) throws IOException {
+        table.seek(HEADER + i * SLOT);
+        table.readFully(slot.array());
+        slot.clear();
+    }
+
+    // Written after the slots it covers: after a crash, records past the indexed
+    // length are simply indexed again (find skips those already in a slot)
+    private void writeHeader(long indexed) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        header.putLong(capacity).putLong(count).putLong(indexed);
+        index.seek(0);
+        index.write(header.array());
+    }
+
+    // The line starting at offset, without its newline
+    private String readRecord(long offset) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        log.seek(offset);
+        int n;
+        while ((n = log.read(buffer)) > 0) {
+            for (int i = 0; i < n; i++) {
+                if (buffer[i] == '\n') {
+                    line.write(buffer, 0, i);
+                    return line.toString("UTF-8");
+                }
+            }
+            line.write(buffer, 0, n);
+        }
+        return line.toString("UTF-8");
+    }
+
+    // The answer a record stores, or null if the record is damaged
+    private static Entry parse(String[] record) {
+        if (record.length == 2 && record[1].equals("N")) {
+            return new Entry(null);
+        }
+        if (record.length != 5 || !record[1].equals("S")) {
+            return null;
+        }
+        try {
+            int rows = Integer.parseInt(record[2]);
+            int cols = Integer.parseInt(record[3]);
+            String[] cells = record[4].split(",");
+            if (rows < 1 || cols < 1 || (long) rows * cols != cells.length) {
+                return null;
+            }
+            int[][] board = new int[rows][cols];
+            for (int i = 0; i < cells.length; i++) {
+                board[i / cols][i % cols] = Integer.parseInt(cells[i]);
+            }
+            return new Entry(board);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int[][] copy(int[][] board) {
+        if (board == null) {
+            return null;
+        }
+        int[][] copy = new int[board.length][];
+        for (int row = 0; row < board.length; row++) {
+            copy[row] = board[row].clone();
+        }
+        return copy;
+    }
+
+    // 0 marks an empty slot
+    private static long nonZero(long hash) {
+        return hash == 0 ? 1 : hash;
+    }
+
+    // 64-bit FNV-1a
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
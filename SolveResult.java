@@ -0,0 +1,87 @@
+// Outcome of PackingPuzzle.solve: a packing, a proof that none exists, or a
+// search that was stopped before it could decide either way
+public class SolveResult {
+
+    public enum Status {
+        SOLVED, // board holds a packing
+        NO_SOLUTION, // the search (or a pre-check) proved there is no packing
+        CANCELLED, // stopped by SearchControl.cancel()
+        TIMED_OUT, // the SearchControl timeout expired
+        NODE_LIMIT // the SearchControl node budget ran out
+    }
+
+    private final Status status;
+    private final int[][] board;
+    private final Precheck.Rule rejection;
+    private SearchStats stats;
+    private boolean cached;
+
+    SolveResult(Status status, int[][] board, Precheck.Rule rejection) {
+        this.status = status;
+        this.board = board;
+        this.rejection = rejection;
+    }
+
+    static SolveResult rejected(Precheck.Rule rule) {
+        return new SolveResult(Status.NO_SOLUTION, null, rule);
+    }
+
+    // Answer read back from a SolutionStore
+    static SolveResult cached(SolutionStore.Entry entry) {
+        SolveResult result = entry.isSolved() ? new SolveResult(Status.SOLVED, entry.getBoard(), null)
+                : new SolveResult(Status.NO_SOLUTION, null, null);
+        result.cached = true;
+        return result;
+    }
+
+    // Result of a finished or stopped search that produced board (null if none)
+    static SolveResult of(int[][] board, SearchControl control) {
+        if (board != null) {
+            return new SolveResult(Status.SOLVED, board, null);
+        }
+        SearchControl.Stop stop = control.getStop();
+        if (stop == null) {
+            return new SolveResult(Status.NO_SOLUTION, null, null);
+        }
+        switch (stop) {
+            case CANCELLED:
+                return new SolveResult(Status.CANCELLED, null, null);
+            case TIMED_OUT:
+                return new SolveResult(Status.TIMED_OUT, null, null);
+            default:
+                return new SolveResult(Status.NODE_LIMIT, null, null);
+        }
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isSolved() {
+        return status == Status.SOLVED;
+    }
+
+    // The packing, or null unless the status is SOLVED
+    public int[][] getBoard() {
+        return board;
+    }
+
+    // The pre-check rule that proved there is no packing, or null
+    public Precheck.Rule getRejection() {
+        return rejection;
+    }
+
+    // Whether the answer came from a SolutionStore rather than a search
+    public boolean isCached() {
+        return cached;
+    }
+
+    // Statistics of the search, or null unless SolverOptions.collectStats was on
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    void setStats(SearchStats stats) {
+        this.stats = stats;
+    }
+}
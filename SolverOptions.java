@@ -0,0 +1,159 @@
+// Per-puzzle solver settings passed to PackingPuzzle.packingPuzzle
+public class SolverOptions {
+    private PackingPuzzle.Engine engine = PackingPuzzle.Engine.BITBOARD;
+    private boolean reflections = false;
+    private boolean regionPruning = true;
+    private int parallelism = 1;
+    private boolean distinctUnderSymmetry = false;
+    private DeadStateCache deadStateCache;
+    private boolean collectStats = false;
+    private SolutionStore solutionStore;
+    private PackingOptimizer.Objective objective = PackingOptimizer.Objective.AREA;
+    private long[] pieceValues;
+    private PieceOrder pieceOrder = PieceOrder.INPUT;
+    private PlacementOrder placementOrder = PlacementOrder.BOARD;
+    private long seed;
+
+    public PackingPuzzle.Engine getEngine() {
+        return engine;
+    }
+
+    public SolverOptions engine(PackingPuzzle.Engine engine) {
+        this.engine = engine;
+        return this;
+    }
+
+    // Whether pieces may also be flipped over, not just rotated
+    public boolean isReflections() {
+        return reflections;
+    }
+
+    public SolverOptions reflections(boolean reflections) {
+        this.reflections = reflections;
+        return this;
+    }
+
+    // Whether to cut branches that leave empty regions no remaining piece can fill
+    public boolean isRegionPruning() {
+        return regionPruning;
+    }
+
+    public SolverOptions regionPruning(boolean regionPruning) {
+        this.regionPruning = regionPruning;
+        return this;
+    }
+
+    // Worker threads for the anchor search (1 runs it on the calling thread), and
+    // members of the PORTFOLIO engine (at least 3)
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public SolverOptions parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    // When enumerating or counting, treat packings that are rotations (or, with
+    // reflections on, mirror images) of each other as one
+    public boolean isDistinctUnderSymmetry() {
+        return distinctUnderSymmetry;
+    }
+
+    public SolverOptions distinctUnderSymmetry(boolean distinctUnderSymmetry) {
+        this.distinctUnderSymmetry = distinctUnderSymmetry;
+        return this;
+    }
+
+    // Cache of proven-dead search states for the bitboard and anchor engines
+    // (null to disable); read its statistics after the solve to size it
+    public DeadStateCache getDeadStateCache() {
+        return deadStateCache;
+    }
+
+    public SolverOptions deadStateCache(DeadStateCache deadStateCache) {
+        this.deadStateCache = deadStateCache;
+        return this;
+    }
+
+    // Whether PackingPuzzle.solve attaches SearchStats to its result; off by
+    // default, when the solvers skip all counting
+    public boolean isCollectStats() {
+        return collectStats;
+    }
+
+    public SolverOptions collectStats(boolean collectStats) {
+        this.collectStats = collectStats;
+        return this;
+    }
+
+    // Persistent store consulted before searching and updated with every
+    // proven answer (null to disable)
+    public SolutionStore getSolutionStore() {
+        return solutionStore;
+    }
+
+    public SolverOptions solutionStore(SolutionStore solutionStore) {
+        this.solutionStore = solutionStore;
+        return this;
+    }
+
+    // What PackingPuzzle.optimize maximizes
+    public PackingOptimizer.Objective getObjective() {
+        return objective;
+    }
+
+    public SolverOptions objective(PackingOptimizer.Objective objective) {
+        this.objective = objective;
+        return this;
+    }
+
+    // Value of one piece of each type (index = pieceType - 1) for the WEIGHTED objective
+    public long[] getPieceValues() {
+        return pieceValues;
+    }
+
+    public SolverOptions pieceValues(long... pieceValues) {
+        for (long v : pieceValues) {
+            if (v < 0) {
+                throw new IllegalArgumentException("Piece values must not be negative");
+            }
+        }
+        this.pieceValues = pieceValues.clone();
+        return this;
+    }
+
+    // Order in which the BACKTRACK and BITBOARD engines place the pieces
+    public PieceOrder getPieceOrder() {
+        return pieceOrder;
+    }
+
+    public SolverOptions pieceOrder(PieceOrder pieceOrder) {
+        this.pieceOrder = pieceOrder;
+        return this;
+    }
+
+    // Order in which the BITBOARD engine tries each piece's placements
+    public PlacementOrder getPlacementOrder() {
+        return placementOrder;
+    }
+
+    public SolverOptions placementOrder(PlacementOrder placementOrder) {
+        this.placementOrder = placementOrder;
+        return this;
+    }
+
+    // Seed of the PORTFOLIO engine's randomized searches; the same seed always
+    // gives the same packing
+    public long getSeed() {
+        return seed;
+    }
+
+    public SolverOptions seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+}
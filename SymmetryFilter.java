@@ -0,0 +1,102 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Decides whether a packing is the canonical member of its class under the
+// board's symmetries, so each class is counted once without remembering the
+// packings already seen. A packing is encoded as one label per cell (piece type
+// plus the anchor cell of the covering piece) and is canonical when no symmetric
+// image has a lexicographically smaller encoding.
+//
+// Rotations are always allowed, so rotating a packing gives another packing of
+// the same pieces; mirror images are only equivalent when reflections are on.
+// Symmetries that move a blocked cell onto a free one are left out.
+public class SymmetryFilter {
+    private final PlacementTable table;
+
+    // transforms[t][cell] = image of cell under symmetry t (the identity is left out)
+    private final int[][] transforms;
+    private final int[] labels;
+    private final int[] image;
+
+    public SymmetryFilter(PlacementTable table, boolean reflections) {
+        this.table = table;
+        this.labels = new int[table.rows * table.cols];
+        this.image = new int[table.rows * table.cols];
+
+        int rows = table.rows, cols = table.cols;
+        boolean square = rows == cols;
+        int count = (square ? 3 : 1) + (reflections ? (square ? 4 : 2) : 0);
+        int[][] candidates = new int[count][rows * cols];
+
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int cell = row * cols + col;
+                int i = 0;
+                // 180 degrees, then 90 and 270 degrees on square boards
+                candidates[i++][cell] = (rows - 1 - row) * cols + (cols - 1 - col);
+                if (square) {
+                    candidates[i++][cell] = col * cols + (cols - 1 - row);
+                    candidates[i++][cell] = (cols - 1 - col) * cols + row;
+                }
+                if (reflections) {
+                    candidates[i++][cell] = row * cols + (cols - 1 - col);
+                    candidates[i++][cell] = (rows - 1 - row) * cols + col;
+                    if (square) {
+                        candidates[i++][cell] = col * cols + row;
+                        candidates[i++][cell] = (cols - 1 - col) * cols + (rows - 1 - row);
+                    }
+                }
+            }
+        }
+
+        List<int[]> kept = new ArrayList<>();
+        for (int[] transform : candidates) {
+            if (preservesBlocked(table.shape, transform)) {
+                kept.add(transform);
+            }
+        }
+        transforms = kept.toArray(new int[0][]);
+    }
+
+    private static boolean preservesBlocked(BoardShape shape, int[] transform) {
+        for (int cell = 0; cell < transform.length; cell++) {
+            if (shape.isBlocked(cell) != shape.isBlocked(transform[cell])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // True if no symmetric image of the packing has a smaller encoding
+    public boolean isCanonical(int[] placements, int count) {
+        encode(placements, count, null, labels);
+        for (int[] transform : transforms) {
+            encode(placements, count, transform, image);
+            for (int cell = 0; cell < labels.length; cell++) {
+                if (image[cell] != labels[cell]) {
+                    if (image[cell] < labels[cell]) {
+                        return false;
+                    }
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void encode(int[] placements, int count, int[] transform, int[] out) {
+        Arrays.fill(out, 0);
+        for (int i = 0; i < count; i++) {
+            int p = placements[i];
+            int anchor = Integer.MAX_VALUE;
+            for (int cell : table.cells[p]) {
+                anchor = Math.min(anchor, transform == null ? cell : transform[cell]);
+            }
+            int label = (table.typeOf[p] << 16) | (anchor + 1);
+            for (int cell : table.cells[p]) {
+                out[transform == null ? cell : transform[cell]] = label;
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+import puzzlebench.SolverDriver;
+
+// Bridges the benchmarks to the solver; see puzzlebench.SolverDriver
+public class BenchDriver implements SolverDriver {
+
+    @Override
+    public long solve(int[] pieces, int size, String engine, String pieceOrder, String placementOrder,
+            long timeoutMillis) throws Exception {
+        SearchControl control = new SearchControl().timeout(timeoutMillis);
+        SolverOptions options = new SolverOptions().engine(PackingPuzzle.Engine.valueOf(engine))
+                .pieceOrder(PieceOrder.Standard.valueOf(pieceOrder))
+                .placementOrder(PlacementOrder.Standard.valueOf(placementOrder));
+        PackingPuzzle.solve(pieces, size, options, control);
+        return control.getNodes();
+    }
+}
@@ -0,0 +1,57 @@
+package puzzlebench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Piece and placement ordering heuristics of the bitboard engine, compared on the
+// puzzles whose search depends on order. Solves are capped at timeoutMillis like
+// SolverBenchmark, so an ordering that loses its way shows up as the cap.
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderingBenchmark {
+
+    @Param({ "exact-6-tetrominoes", "exact-7-lines", "exact-8-mixed", "exact-9-mixed", "exact-10-mixed",
+            "exact-12-mixed", "unsolvable-5-squares", "unsolvable-8-skew" })
+    public String puzzle;
+
+    @Param({ "INPUT", "LARGEST_FIRST", "MOST_CONSTRAINED" })
+    public String pieceOrder;
+
+    @Param({ "BOARD", "CONTACT" })
+    public String placementOrder;
+
+    @Param("2000")
+    public long timeoutMillis;
+
+    private SolverDriver driver;
+    private int[] pieces;
+    private int size;
+
+    @Setup
+    public void setup() throws Exception {
+        driver = SolverDriver.load();
+        PuzzleCorpus.Puzzle p = PuzzleCorpus.get(puzzle);
+        pieces = p.pieces;
+        size = p.size;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long timeToFirstSolution() throws Exception {
+        return driver.solve(pieces, size, "BITBOARD", pieceOrder, placementOrder, timeoutMillis);
+    }
+}
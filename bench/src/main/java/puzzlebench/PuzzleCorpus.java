@@ -0,0 +1,61 @@
+package puzzlebench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// The checked-in benchmark puzzles (corpus.txt), keyed by name
+public final class PuzzleCorpus {
+
+    public static final class Puzzle {
+        public final String name;
+        public final int size;
+        public final int[] pieces;
+
+        Puzzle(String name, int size, int[] pieces) {
+            this.name = name;
+            this.size = size;
+            this.pieces = pieces;
+        }
+    }
+
+    private PuzzleCorpus() {
+    }
+
+    public static Map<String, Puzzle> load() throws IOException {
+        Map<String, Puzzle> puzzles = new LinkedHashMap<>();
+        try (InputStream in = PuzzleCorpus.class.getResourceAsStream("/corpus.txt")) {
+            if (in == null) {
+                throw new IOException("corpus.txt not found on the classpath");
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                String[] types = fields[2].split(",");
+                int[] pieces = new int[types.length];
+                for (int i = 0; i < types.length; i++) {
+                    pieces[i] = Integer.parseInt(types[i]);
+                }
+                puzzles.put(fields[0], new Puzzle(fields[0], Integer.parseInt(fields[1]), pieces));
+            }
+        }
+        return puzzles;
+    }
+
+    public static Puzzle get(String name) throws IOException {
+        Puzzle puzzle = load().get(name);
+        if (puzzle == null) {
+            throw new IllegalArgumentException("Unknown puzzle: " + name);
+        }
+        return puzzle;
+    }
+}
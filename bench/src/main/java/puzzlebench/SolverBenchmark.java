@@ -0,0 +1,76 @@
+package puzzlebench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Solver benchmarks over the puzzle corpus. Every solve is capped at
+// timeoutMillis, so a puzzle an engine cannot crack shows up as that cap rather
+// than hanging the run. Allocation rate comes from JMH's GC profiler (-prof gc).
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SolverBenchmark {
+
+    @Param({ "exact-4-mixed", "exact-6-tetrominoes", "exact-7-lines", "exact-8-mixed", "exact-9-mixed",
+            "exact-10-mixed", "exact-12-mixed", "partial-6-sparse", "partial-8-half", "partial-12-sparse",
+            "unsolvable-4-skew", "unsolvable-5-squares", "unsolvable-6-coloring", "unsolvable-8-skew" })
+    public String puzzle;
+
+    @Param({ "BITBOARD", "ANCHOR", "DLX", "PORTFOLIO" })
+    public String engine;
+
+    @Param("2000")
+    public long timeoutMillis;
+
+    private SolverDriver driver;
+    private int[] pieces;
+    private int size;
+
+    // Search nodes visited, reported by JMH as nodes per second
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class NodeCounter {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        driver = SolverDriver.load();
+        PuzzleCorpus.Puzzle p = PuzzleCorpus.get(puzzle);
+        pieces = p.pieces;
+        size = p.size;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long timeToFirstSolution() throws Exception {
+        return driver.solve(pieces, size, engine, timeoutMillis);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void nodesPerSecond(NodeCounter counter) throws Exception {
+        counter.nodes += driver.solve(pieces, size, engine, timeoutMillis);
+    }
+}
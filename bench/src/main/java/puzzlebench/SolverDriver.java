@@ -0,0 +1,21 @@
+package puzzlebench;
+
+// The solver classes live in the default package, which named packages cannot
+// import, while JMH requires benchmarks to be in a named package. BenchDriver (in
+// the default package) implements this interface and is loaded by name once, so
+// the measured calls go through a plain interface call.
+public interface SolverDriver {
+
+    // Solve one puzzle with the named engine and return the search nodes visited
+    default long solve(int[] pieces, int size, String engine, long timeoutMillis) throws Exception {
+        return solve(pieces, size, engine, "INPUT", "BOARD", timeoutMillis);
+    }
+
+    // Same, with the named PieceOrder and PlacementOrder
+    long solve(int[] pieces, int size, String engine, String pieceOrder, String placementOrder, long timeoutMillis)
+            throws Exception;
+
+    static SolverDriver load() throws ReflectiveOperationException {
+        return (SolverDriver) Class.forName("BenchDriver").getDeclaredConstructor().newInstance();
+    }
+}
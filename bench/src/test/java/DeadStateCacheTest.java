@@ -0,0 +1,32 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+// One DeadStateCache reused across puzzles must not carry dead states from one puzzle into another
+class DeadStateCacheTest {
+
+    @Test
+    void bitboardCacheIsNotConfusedByAnotherPieceList() throws Exception {
+        SolverOptions options = new SolverOptions().engine(PackingPuzzle.Engine.BITBOARD)
+                .deadStateCache(new DeadStateCache(1 << 12));
+        BoardShape board = new BoardShape(4, 2);
+
+        assertEquals(SolveResult.Status.NO_SOLUTION, solve(new int[] { 6, 3, 1 }, board, options));
+        assertEquals(SolveResult.Status.SOLVED, solve(new int[] { 6, 6 }, board, options));
+    }
+
+    @Test
+    void anchorCacheIsNotConfusedByAnotherBoard() throws Exception {
+        SolverOptions options = new SolverOptions().engine(PackingPuzzle.Engine.ANCHOR)
+                .deadStateCache(new DeadStateCache(1 << 12));
+        boolean[][] corner = new boolean[3][2];
+        corner[2][0] = true;
+
+        assertEquals(SolveResult.Status.NO_SOLUTION, solve(new int[] { 10 }, new BoardShape(2, 3, corner), options));
+        assertEquals(SolveResult.Status.SOLVED, solve(new int[] { 10 }, new BoardShape(4, 3), options));
+    }
+
+    private static SolveResult.Status solve(int[] pieces, BoardShape board, SolverOptions options) throws Exception {
+        return PackingPuzzle.solve(pieces, board, options, new SearchControl()).getStatus();
+    }
+}
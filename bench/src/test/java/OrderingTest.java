@@ -0,0 +1,60 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+// Piece and placement orders are pluggable: callers may pass their own implementations
+class OrderingTest {
+
+    private static final int[] PIECES = { 1, 2, 6, 6, 9 };
+
+    @Test
+    void customPieceOrderIsUsed() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        PieceOrder reversed = (pieces, catalog, table) -> {
+            calls.incrementAndGet();
+            int[] result = new int[pieces.length];
+            for (int i = 0; i < pieces.length; i++) {
+                result[i] = pieces[pieces.length - 1 - i];
+            }
+            return result;
+        };
+
+        assertEquals(SolveResult.Status.SOLVED, solve(new SolverOptions().pieceOrder(reversed)));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void customPlacementOrderIsUsed() throws Exception {
+        AtomicInteger scored = new AtomicInteger();
+        // Placements furthest down the board first
+        PlacementOrder bottomUp = table -> new PlacementOrder.Scorer() {
+            @Override
+            public int maxScore() {
+                return table.rows * table.cols;
+            }
+
+            @Override
+            public int score(long[] occupied, int p) {
+                scored.incrementAndGet();
+                return table.cells[p][0];
+            }
+        };
+
+        assertEquals(SolveResult.Status.SOLVED, solve(new SolverOptions().placementOrder(bottomUp)));
+        assertTrue(scored.get() > 0);
+    }
+
+    @Test
+    void builtInOrdersKeepTheirNames() {
+        assertEquals(PieceOrder.MOST_CONSTRAINED, PieceOrder.Standard.valueOf("MOST_CONSTRAINED"));
+        assertEquals(PlacementOrder.CONTACT, PlacementOrder.Standard.valueOf("CONTACT"));
+    }
+
+    private static SolveResult.Status solve(SolverOptions options) throws Exception {
+        options.engine(PackingPuzzle.Engine.BITBOARD);
+        return PackingPuzzle.solve(PIECES, 5, options, new SearchControl()).getStatus();
+    }
+}
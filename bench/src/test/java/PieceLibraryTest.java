@@ -0,0 +1,30 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+class PieceLibraryTest {
+
+    @Test
+    void indentedShapeRowIsRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> PieceLibrary.parse(new StringReader("piece L\nX.\n XX\n"), "test"));
+        assertTrue(e.getMessage().startsWith("test:3: "), e.getMessage());
+    }
+
+    @Test
+    void leadingGapsAreWrittenAsDots() throws Exception {
+        PieceLibrary library = PieceLibrary.parse(new StringReader("  piece S\n.XX\nXX.\n"), "test");
+        assertEquals(1, library.size());
+        assertEquals(4, library.shape(1).length);
+    }
+
+    @Test
+    void fingerprintKeepsAllSixtyFourBits() throws Exception {
+        PieceLibrary library = PieceLibrary.parse(new StringReader("piece I\nXX\n"), "test");
+        assertEquals(16, library.fingerprint().length());
+    }
+}
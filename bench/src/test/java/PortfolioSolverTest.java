@@ -0,0 +1,26 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+// The portfolio's answer depends only on its seed, not on which member's thread runs fastest
+class PortfolioSolverTest {
+
+    // Several members solve this in their first round, each with a different packing
+    private static final int[] PIECES = { 1, 2, 3, 4, 5, 6, 7, 8, 9 };
+
+    @Test
+    void sameSeedGivesSamePacking() throws Exception {
+        int[][] first = solve();
+        for (int run = 0; run < 30; run++) {
+            assertArrayEquals(first, solve(), "run " + run);
+        }
+    }
+
+    private static int[][] solve() throws Exception {
+        SolverOptions options = new SolverOptions().engine(PackingPuzzle.Engine.PORTFOLIO).parallelism(4).seed(7);
+        SolveResult result = PackingPuzzle.solve(PIECES, 8, options, new SearchControl());
+        assertEquals(SolveResult.Status.SOLVED, result.getStatus());
+        return result.getBoard();
+    }
+}
@@ -0,0 +1,52 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+// A SearchControl handed to several solves in turn must not carry state from one into the next
+class SearchControlTest {
+
+    @Test
+    void parallelSolveLeavesTheCallersControlReusable() throws Exception {
+        SolverOptions options = new SolverOptions().engine(PackingPuzzle.Engine.ANCHOR).parallelism(4);
+        SearchControl control = new SearchControl();
+
+        int[] pieces = { 6, 6, 6, 6, 1 };
+        assertEquals(SolveResult.Status.SOLVED, PackingPuzzle.solve(pieces, 5, options, control).getStatus());
+        assertFalse(control.isStopped());
+        assertNull(control.getStop());
+        assertEquals(SolveResult.Status.SOLVED, PackingPuzzle.solve(pieces, 5, options, control).getStatus());
+    }
+
+    @Test
+    void controlStoppedByItsNodeBudgetCanBeReused() throws Exception {
+        SolverOptions options = new SolverOptions().engine(PackingPuzzle.Engine.BITBOARD);
+        SearchControl control = new SearchControl().nodeLimit(SearchControl.CHECK_INTERVAL);
+
+        // The unsolvable-8-skew corpus puzzle, which takes the bitboard engine seconds to refute
+        int[] hard = { 10, 10, 10, 10, 11, 11, 11, 11, 10, 10, 11, 11, 10, 10, 11, 11 };
+        assertEquals(SolveResult.Status.NODE_LIMIT, PackingPuzzle.solve(hard, 8, options, control).getStatus());
+        assertEquals(SolveResult.Status.SOLVED, PackingPuzzle.solve(new int[] { 6 }, 4, options, control).getStatus());
+    }
+
+    @Test
+    void cancellationOutlastsStart() throws Exception {
+        SearchControl control = new SearchControl();
+        control.cancel();
+        SolveResult result = PackingPuzzle.solve(new int[] { 6, 6, 6, 6 }, 4, new SolverOptions(), control);
+        assertEquals(SolveResult.Status.CANCELLED, result.getStatus());
+    }
+
+    @Test
+    void nodeCountStartsAfreshForEachSolve() throws Exception {
+        SolverOptions options = new SolverOptions().engine(PackingPuzzle.Engine.ANCHOR);
+        SearchControl control = new SearchControl();
+        int[] pieces = { 6, 6, 6, 6, 1 };
+
+        PackingPuzzle.solve(pieces, 5, options, control);
+        long first = control.getNodes();
+        PackingPuzzle.solve(pieces, 5, options, control);
+        assertEquals(first, control.getNodes());
+    }
+}
@@ -0,0 +1,19 @@
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SolutionCounterTest {
+
+    @Test
+    void failingSubtreeIsReportedInsteadOfUndercounting() {
+        SolverOptions options = new SolverOptions().parallelism(2);
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> PackingPuzzle.countSolutions(new int[] { 6, 6, 6, 6 }, 4, options, new SearchControl(),
+                        (solutions, finished, total) -> {
+                            throw new IllegalStateException("progress failed");
+                        }));
+        // ForkJoinPool may hand back a copy of the exception that wraps the original
+        assertTrue(e.getMessage().contains("progress failed"), e.getMessage());
+    }
+}
@@ -0,0 +1,77 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SolutionStoreTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    void damagedRecordInTheMiddleOnlyLosesThatRecord() throws Exception {
+        File file = new File(dir, "solutions.log");
+        String log = "a\tN\n" + "b\tS\t1\t2\t1,\n" + "c\tS\t1\t2\t1,1\n" + "e\tS\t1\t2\t1,x\n" + "d\tS\t1\t";
+        Files.write(file.toPath(), log.getBytes(StandardCharsets.UTF_8));
+
+        try (SolutionStore store = new SolutionStore(file, 1)) {
+            assertFalse(store.get("a").isSolved());
+            assertNull(store.get("b"));
+            assertNotNull(store.get("c"));
+            assertNull(store.get("d"));
+            assertNull(store.get("e"));
+        }
+        // Only the torn last record is cut off
+        assertEquals(log.length() - "d\tS\t1\t".length(), file.length());
+    }
+
+    @Test
+    void answersSurviveReopening() throws Exception {
+        File file = new File(dir, "solutions.log");
+        try (SolutionStore store = new SolutionStore(file, 1)) {
+            for (int i = 0; i < 5000; i++) {
+                store.put("puzzle" + i, i % 2 == 0 ? null : new int[][] { { i } });
+            }
+        }
+        try (SolutionStore store = new SolutionStore(file, 1)) {
+            assertEquals(5000, store.size());
+            for (int i = 0; i < 5000; i++) {
+                SolutionStore.Entry entry = store.get("puzzle" + i);
+                assertEquals(i % 2 != 0, entry.isSolved());
+                if (entry.isSolved()) {
+                    assertEquals(i, entry.getBoard()[0][0]);
+                }
+            }
+            assertNull(store.get("puzzle5000"));
+        }
+    }
+
+    @Test
+    void lostIndexIsRebuiltFromTheLog() throws Exception {
+        File file = new File(dir, "solutions.log");
+        try (SolutionStore store = new SolutionStore(file, 1)) {
+            store.put("a", null);
+            store.put("b", new int[][] { { 1, 1 } });
+        }
+        // Records appended behind the store's back are indexed on the next open
+        Files.write(file.toPath(), "c\tN\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        try (SolutionStore store = new SolutionStore(file, 1)) {
+            assertEquals(3, store.size());
+            assertFalse(store.get("c").isSolved());
+        }
+
+        Files.delete(new File(dir, "solutions.log.idx").toPath());
+        try (SolutionStore store = new SolutionStore(file, 1)) {
+            assertEquals(3, store.size());
+            assertEquals(1, store.get("b").getBoard()[0][1]);
+        }
+    }
+}